@@ -20,6 +20,7 @@ interface Category {
     id: number;
     name: string;
     description: string;
+    reorderThreshold: number | null;
 }
 
 export default function CategoriesPage() {
@@ -113,7 +114,9 @@ export default function CategoriesPage() {
         try {
             await api.put(`/categories/${id}`, {
                 name: editName,
-                description: editDesc
+                description: editDesc,
+                // Not editable here; send it back so the update keeps it
+                reorderThreshold: categories.find(c => c.id === id)?.reorderThreshold ?? null
             });
             setEditingId(null);
             fetchCategories();
@@ -2,28 +2,23 @@
 
 import { useEffect, useState } from 'react';
 import { useRouter } from 'next/navigation';
-import api from '@/lib/api';
+import api, { subscribeEvents } from '@/lib/api';
 import { motion } from 'framer-motion';
 import { Loader2, AlertTriangle, TrendingUp, Package, Tag, DollarSign } from 'lucide-react';
 import { cn, formatCurrency } from '@/lib/utils';
 import { toast } from 'sonner';
 
-interface Product {
-  id: number;
+interface LowStockProduct {
+  productId: number;
   name: string;
   stockQuantity: number;
-  price: number;
+  reorderThreshold: number;
 }
 
-interface SaleDetail {
+interface TopProduct {
+  productId: number;
   productName: string;
-  quantity: number;
-}
-
-interface Sale {
-  dateTime: string;
-  totalAmount: number;
-  details: SaleDetail[];
+  unitsSold: number;
 }
 
 export default function Home() {
@@ -33,7 +28,7 @@ export default function Home() {
     productCount: 0,
     categoryCount: 0
   });
-  const [lowStockProducts, setLowStockProducts] = useState<Product[]>([]);
+  const [lowStockProducts, setLowStockProducts] = useState<LowStockProduct[]>([]);
   const [topSellers, setTopSellers] = useState<{ name: string, quantity: number }[]>([]);
   const [loading, setLoading] = useState(true);
 
@@ -41,46 +36,66 @@ export default function Home() {
     const token = localStorage.getItem('token');
     if (!token) {
       router.push('/login');
-    } else {
-      fetchDashboardData();
+      return;
     }
+    fetchDashboardData();
+
+    // Low-stock changes are pushed by the server; reconnect a few seconds after the stream ends or fails.
+    const controller = new AbortController();
+    const listen = () => {
+      subscribeEvents('/products/low-stock/stream', onLowStockEvent, controller.signal)
+        .catch(err => {
+          if (!controller.signal.aborted) console.error('Low-stock stream failed', err);
+        })
+        .finally(() => {
+          if (!controller.signal.aborted) setTimeout(listen, 5000);
+        });
+    };
+    listen();
+    return () => controller.abort();
   }, [router]);
 
+  const onLowStockEvent = (event: string, data: any) => {
+    if (event === 'snapshot') {
+      setLowStockProducts(data as LowStockProduct[]);
+    } else if (event === 'low') {
+      const product = data as LowStockProduct;
+      setLowStockProducts(current => {
+        if (!current.some(p => p.productId === product.productId)) {
+          toast.warning(`Stock bajo: ${product.name}`, {
+            id: `low-stock-${product.productId}`,
+            description: `Quedan ${product.stockQuantity} (mínimo ${product.reorderThreshold}).`,
+          });
+        }
+        return [...current.filter(p => p.productId !== product.productId), product];
+      });
+    } else if (event === 'cleared') {
+      setLowStockProducts(current => current.filter(p => p.productId !== data.productId));
+    }
+  };
+
   const fetchDashboardData = async () => {
     try {
-      const [productsRes, categoriesRes, salesRes] = await Promise.all([
+      const [productsRes, categoriesRes, summaryRes, topProductsRes, lowStockRes] = await Promise.all([
         api.get('/products'),
         api.get('/categories'),
-        api.get('/sales')
+        api.get('/dashboard/summary'),
+        api.get('/dashboard/top-products', { params: { limit: 5 } }),
+        api.get('/products/low-stock')
       ]);
 
-      const products: Product[] = productsRes.data;
-      const sales: Sale[] = salesRes.data;
-
-      // Calculate Today's Sales
-      const today = new Date().toLocaleDateString('es-AR');
-      const todayTotal = sales
-        .filter((s) => new Date(s.dateTime).toLocaleDateString('es-AR') === today)
-        .reduce((sum, s) => sum + s.totalAmount, 0);
+      // Today's Sales (aggregated by the server)
+      const todayTotal: number = summaryRes.data.revenue;
 
-      // Low Stock Alerts (Stock < 5)
-      const lowStock = products.filter(p => p.stockQuantity < 5);
-
-      // Top Selling Products
-      const productSales: Record<string, number> = {};
-      sales.forEach(sale => {
-        sale.details.forEach(detail => {
-          productSales[detail.productName] = (productSales[detail.productName] || 0) + detail.quantity;
-        });
-      });
+      // Low Stock Alerts (each product against its own reorder threshold, computed by the server)
+      const lowStock: LowStockProduct[] = lowStockRes.data;
 
-      const sortedSellers = Object.entries(productSales)
-        .map(([name, quantity]) => ({ name, quantity }))
-        .sort((a, b) => b.quantity - a.quantity)
-        .slice(0, 5);
+      // Top Selling Products (ranked by the server)
+      const sortedSellers = (topProductsRes.data as TopProduct[])
+        .map(p => ({ name: p.productName, quantity: p.unitsSold }));
 
       setStats({
-        productCount: products.length,
+        productCount: productsRes.data.length,
         categoryCount: categoriesRes.data.length,
         todaySales: todayTotal
       });
@@ -199,8 +214,8 @@ export default function Home() {
 
           {lowStockProducts.length > 0 ? (
             <div className="space-y-3">
-              {lowStockProducts.sort((a, b) => a.stockQuantity - b.stockQuantity).map(p => (
-                <div key={p.id} className={cn(
+              {[...lowStockProducts].sort((a, b) => a.stockQuantity - b.stockQuantity).map(p => (
+                <div key={p.productId} className={cn(
                   "flex items-center justify-between p-3 rounded-xl border transition-all",
                   p.stockQuantity < 3
                     ? "bg-red-50 dark:bg-red-950/20 border-red-200 dark:border-red-900/40 shadow-sm"
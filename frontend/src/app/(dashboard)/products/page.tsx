@@ -1,6 +1,6 @@
 'use client';
 
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import api from '@/lib/api';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
@@ -13,7 +13,7 @@ import {
     TableHeader,
     TableRow,
 } from "@/components/ui/table";
-import { Plus, Loader2, Package, Barcode, Trash2, Pencil } from 'lucide-react';
+import { Plus, Loader2, Package, Barcode, Trash2, Pencil, Upload } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 import { formatCurrency } from '@/lib/utils';
 
@@ -25,6 +25,7 @@ interface Product {
     stockQuantity: number;
     categoryId: number;
     categoryName: string;
+    reorderThreshold: number | null;
 }
 
 interface Category {
@@ -46,9 +47,12 @@ export default function ProductsPage() {
         name: '',
         price: '',
         stockQuantity: '',
-        categoryId: ''
+        categoryId: '',
+        reorderThreshold: ''
     });
     const [submitting, setSubmitting] = useState(false);
+    const [importing, setImporting] = useState(false);
+    const importInput = useRef<HTMLInputElement>(null);
 
     useEffect(() => {
         const userData = localStorage.getItem('user');
@@ -85,7 +89,8 @@ export default function ProductsPage() {
                 ...formData,
                 price: parseFloat(formData.price),
                 stockQuantity: parseInt(formData.stockQuantity),
-                categoryId: parseInt(formData.categoryId)
+                categoryId: parseInt(formData.categoryId),
+                reorderThreshold: formData.reorderThreshold === '' ? null : parseInt(formData.reorderThreshold)
             };
 
             if (editingId) {
@@ -96,7 +101,7 @@ export default function ProductsPage() {
 
             setIsAdding(false);
             setEditingId(null);
-            setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '' });
+            setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '', reorderThreshold: '' });
             fetchProducts();
         } catch (err: any) {
             console.error('Detalles del error:', err);
@@ -122,7 +127,8 @@ export default function ProductsPage() {
             name: p.name,
             price: p.price.toString(),
             stockQuantity: p.stockQuantity.toString(),
-            categoryId: p.categoryId.toString()
+            categoryId: p.categoryId.toString(),
+            reorderThreshold: p.reorderThreshold?.toString() ?? ''
         });
         setIsAdding(true);
         window.scrollTo({ top: 0, behavior: 'smooth' });
@@ -139,6 +145,28 @@ export default function ProductsPage() {
         }
     };
 
+    const handleImport = async (e: React.ChangeEvent<HTMLInputElement>) => {
+        const file = e.target.files?.[0];
+        e.target.value = '';
+        if (!file) return;
+        const ndjson = /\.(ndjson|jsonl)$/i.test(file.name);
+        setImporting(true);
+        try {
+            const response = await api.post(`/products/import?format=${ndjson ? 'ndjson' : 'csv'}`, file, {
+                headers: { 'Content-Type': ndjson ? 'application/x-ndjson' : 'text/csv' }
+            });
+            const { created, updated, rejected, errors } = response.data;
+            const details = errors.slice(0, 10).map((err: { line: number; error: string }) => `Línea ${err.line}: ${err.error}`);
+            alert([`Importación terminada: ${created} creados, ${updated} actualizados, ${rejected} rechazados.`, ...details].join('\n'));
+            fetchProducts();
+        } catch (err: any) {
+            console.error(err);
+            alert(`No se pudo importar el archivo. ${err.response?.data?.message || ''}`);
+        } finally {
+            setImporting(false);
+        }
+    };
+
     if (loading) {
         return (
             <div className="flex h-full items-center justify-center">
@@ -155,20 +183,26 @@ export default function ProductsPage() {
                     <p className="text-slate-500">Administra el inventario y precios.</p>
                 </div>
                 {isAdmin && (
-                    <Button
-                        onClick={() => {
-                            if (isAdding) {
-                                setIsAdding(false);
-                                setEditingId(null);
-                                setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '' });
-                            } else {
-                                setIsAdding(true);
-                            }
-                        }}
-                        className="bg-orange-600 hover:bg-orange-700"
-                    >
-                        {isAdding && editingId ? 'Cancelar Edición' : (isAdding ? 'Cancelar' : <><Plus className="mr-2 h-4 w-4" /> Nuevo Producto</>)}
-                    </Button>
+                    <div className="flex gap-2">
+                        <input ref={importInput} type="file" accept=".csv,.ndjson,.jsonl" className="hidden" onChange={handleImport} />
+                        <Button variant="outline" disabled={importing} onClick={() => importInput.current?.click()}>
+                            {importing ? <Loader2 className="mr-2 h-4 w-4 animate-spin" /> : <Upload className="mr-2 h-4 w-4" />} Importar
+                        </Button>
+                        <Button
+                            onClick={() => {
+                                if (isAdding) {
+                                    setIsAdding(false);
+                                    setEditingId(null);
+                                    setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '', reorderThreshold: '' });
+                                } else {
+                                    setIsAdding(true);
+                                }
+                            }}
+                            className="bg-orange-600 hover:bg-orange-700"
+                        >
+                            {isAdding && editingId ? 'Cancelar Edición' : (isAdding ? 'Cancelar' : <><Plus className="mr-2 h-4 w-4" /> Nuevo Producto</>)}
+                        </Button>
+                    </div>
                 )}
             </div>
 
@@ -224,6 +258,16 @@ export default function ProductsPage() {
                                         required
                                     />
                                 </div>
+                                <div className="space-y-2">
+                                    <Label>Stock Mínimo</Label>
+                                    <Input
+                                        type="number"
+                                        min={0}
+                                        placeholder="El de la categoría"
+                                        value={formData.reorderThreshold}
+                                        onChange={(e) => setFormData({ ...formData, reorderThreshold: e.target.value })}
+                                    />
+                                </div>
                                 <div className="space-y-2">
                                     <Label>Categoría</Label>
                                     <select
@@ -248,7 +292,7 @@ export default function ProductsPage() {
                                         onClick={() => {
                                             setIsAdding(false);
                                             setEditingId(null);
-                                            setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '' });
+                                            setFormData({ barcode: '', name: '', price: '', stockQuantity: '', categoryId: '', reorderThreshold: '' });
                                         }}
                                     >
                                         Cancelar
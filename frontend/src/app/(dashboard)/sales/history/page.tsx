@@ -32,26 +32,34 @@ interface Sale {
 
 export default function SalesHistoryPage() {
     const [sales, setSales] = useState<Sale[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [selectedSale, setSelectedSale] = useState<Sale | null>(null);
 
     useEffect(() => {
         fetchSales();
     }, []);
 
-    const fetchSales = async () => {
+    const fetchSales = async (cursor?: string) => {
         try {
-            const response = await api.get('/sales');
-            setSales(response.data.sort((a: Sale, b: Sale) =>
-                new Date(b.dateTime).getTime() - new Date(a.dateTime).getTime()
-            ));
+            const response = await api.get('/sales', { params: { cursor } });
+            setSales(prev => cursor ? [...prev, ...response.data.items] : response.data.items);
+            setNextCursor(response.data.nextCursor);
         } catch (err) {
             console.error('Error fetching sales', err);
         } finally {
             setLoading(false);
+            setLoadingMore(false);
         }
     };
 
+    const loadMore = () => {
+        if (!nextCursor) return;
+        setLoadingMore(true);
+        fetchSales(nextCursor);
+    };
+
     if (loading) {
         return (
             <div className="flex h-full items-center justify-center">
@@ -121,6 +129,15 @@ export default function SalesHistoryPage() {
                 </Table>
             </div>
 
+            {nextCursor && (
+                <div className="flex justify-center">
+                    <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                        {loadingMore && <Loader2 className="h-4 w-4 mr-2 animate-spin" />}
+                        Cargar más
+                    </Button>
+                </div>
+            )}
+
             {/* Modal de Detalle */}
             <AnimatePresence>
                 {selectedSale && (
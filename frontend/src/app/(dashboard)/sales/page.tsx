@@ -1,7 +1,7 @@
 'use client';
 
-import { useEffect, useState } from 'react';
-import api from '@/lib/api';
+import { useEffect, useRef, useState } from 'react';
+import api, { subscribeEvents } from '@/lib/api';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
 import { cn, formatCurrency } from '@/lib/utils';
@@ -30,33 +30,81 @@ interface CartItem extends Product {
 }
 
 export default function SalesPage() {
-    const [allProducts, setAllProducts] = useState<Product[]>([]);
+    // Local copy of the catalog, kept current by the server's product stream
+    const [catalog, setCatalog] = useState<Map<number, Product>>(new Map());
     const [searchTerm, setSearchTerm] = useState('');
+    const [filteredProducts, setFilteredProducts] = useState<Product[]>([]);
     const [cart, setCart] = useState<CartItem[]>([]);
     const [loading, setLoading] = useState(true);
     const [submitting, setSubmitting] = useState(false);
     const [amountPaid, setAmountPaid] = useState<string>('');
     const [saleSuccess, setSaleSuccess] = useState(false);
+    // Idempotency key of the current cart: a retry after a timeout reuses it, so the server sells only once
+    const checkoutKey = useRef<string | null>(null);
 
     useEffect(() => {
-        fetchProducts();
+        checkoutKey.current = null;
+    }, [cart]);
+
+    useEffect(() => {
+        // The stream starts with the whole catalog, then sends only what changes; reconnect if it drops.
+        const controller = new AbortController();
+        const listen = () => {
+            subscribeEvents('/products/stream', onCatalogEvent, controller.signal)
+                .catch(err => {
+                    if (!controller.signal.aborted) console.error('Product stream failed', err);
+                })
+                .finally(() => {
+                    setLoading(false);
+                    if (!controller.signal.aborted) setTimeout(listen, 3000);
+                });
+        };
+        listen();
+        return () => controller.abort();
     }, []);
 
-    const fetchProducts = async () => {
-        try {
-            const response = await api.get('/products');
-            setAllProducts(response.data);
-        } catch (err) {
-            console.error('Error fetching products', err);
-        } finally {
+    const onCatalogEvent = (event: string, data: any) => {
+        if (event === 'snapshot') {
+            setCatalog(new Map((data as Product[]).map(p => [p.id, p])));
             setLoading(false);
+            return;
         }
+        setCatalog(current => {
+            const next = new Map(current);
+            if (event === 'stock') {
+                for (const { id, stock } of data as { id: number, stock: number }[]) {
+                    const product = next.get(id);
+                    if (product) next.set(id, { ...product, stockQuantity: stock });
+                }
+            } else if (event === 'product') {
+                next.set(data.id, data as Product);
+            } else if (event === 'removed') {
+                (data as number[]).forEach(id => next.delete(id));
+            }
+            return next;
+        });
     };
 
-    const filteredProducts = allProducts.filter(p =>
-        p.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        p.barcode.includes(searchTerm)
-    ).slice(0, 5);
+    // Search results with the stock and price as last pushed by the server
+    const live = (p: Product) => catalog.get(p.id) ?? p;
+
+    useEffect(() => {
+        if (!searchTerm) {
+            setFilteredProducts([]);
+            return;
+        }
+        const timer = setTimeout(async () => {
+            try {
+                const response = await api.get('/products/search', {
+                    params: { q: searchTerm, active: true, size: 5 }
+                });
+                setFilteredProducts(response.data.items);
+            } catch (err) {
+                console.error('Error searching products', err);
+            }
+        }, 150);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
 
     const addToCart = (product: Product) => {
         if (product.stockQuantity <= 0) {
@@ -112,28 +160,29 @@ export default function SalesPage() {
                     quantity: item.quantity
                 }))
             };
-            await api.post('/sales', payload);
+            checkoutKey.current ??= crypto.randomUUID();
+            await api.post('/sales', payload, { headers: { 'Idempotency-Key': checkoutKey.current } });
+            const soldIds = new Set(cart.map(item => item.id));
             setSaleSuccess(true);
             setCart([]);
             setAmountPaid('');
 
-            // Check for low stock after sale
-            const updatedProductsRes = await api.get('/products');
-            const updatedProducts: Product[] = updatedProductsRes.data;
-            setAllProducts(updatedProducts);
-
-            updatedProducts.forEach(p => {
-                if (p.stockQuantity < 5) {
+            // Warn about the products just sold that are now below their reorder threshold
+            const lowStockRes = await api.get('/products/low-stock');
+            (lowStockRes.data as { productId: number, name: string, stockQuantity: number }[])
+                .filter(p => soldIds.has(p.productId))
+                .forEach(p => {
                     toast.warning(`Stock bajo: ${p.name}`, {
                         description: `Quedan solo ${p.stockQuantity} unidades.`,
                         duration: 5000,
                     });
-                }
-            });
+                });
 
             setTimeout(() => setSaleSuccess(false), 3000);
         } catch (err: any) {
             console.error(err);
+            // The server answered, so the sale was not recorded: the next attempt is a new sale
+            if (err.response) checkoutKey.current = null;
             alert('Error al procesar la venta. Revisa el stock o tu conexión.');
         } finally {
             setSubmitting(false);
@@ -168,7 +217,7 @@ export default function SalesPage() {
 
                     {searchTerm && (
                         <div className="mt-4 border rounded-lg overflow-hidden divide-y bg-slate-50">
-                            {filteredProducts.length > 0 ? filteredProducts.map(p => (
+                            {filteredProducts.length > 0 ? filteredProducts.map(live).map(p => (
                                 <div
                                     key={p.id}
                                     className="p-4 hover:bg-orange-50 cursor-pointer flex justify-between items-center transition-colors"
@@ -37,3 +37,50 @@ api.interceptors.response.use(
 );
 
 export default api;
+
+// Server-Sent Events through fetch, because EventSource cannot send the Authorization header.
+// Resolves when the server ends the stream; rejects on HTTP errors or when `signal` aborts.
+export async function subscribeEvents(
+    path: string,
+    onEvent: (event: string, data: any) => void,
+    signal: AbortSignal
+) {
+    const token = localStorage.getItem('token');
+    const response = await fetch(`${api.defaults.baseURL}${path}`, {
+        headers: {
+            Accept: 'text/event-stream',
+            ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        signal,
+    });
+    if (!response.ok || !response.body) {
+        throw new Error(`Event stream ${path} failed: ${response.status}`);
+    }
+
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    while (true) {
+        const { value, done } = await reader.read();
+        if (done) {
+            return;
+        }
+        buffer += value;
+        let boundary;
+        while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+            const block = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary + 2);
+            let event = 'message';
+            const data: string[] = [];
+            for (const line of block.split('\n')) {
+                if (line.startsWith('event:')) {
+                    event = line.slice(6).trim();
+                } else if (line.startsWith('data:')) {
+                    data.push(line.slice(5));
+                }
+            }
+            if (data.length > 0) {
+                onEvent(event, JSON.parse(data.join('\n')));
+            }
+        }
+    }
+}
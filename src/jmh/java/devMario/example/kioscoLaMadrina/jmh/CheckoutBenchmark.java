@@ -0,0 +1,78 @@
+package devMario.example.kioscoLaMadrina.jmh;
+
+import devMario.example.kioscoLaMadrina.KioscoLaMadrinaApplication;
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SaleServiceImpl.createSale end to end (stock decrement, inserts, dashboard counters, mapping) against the
+ * embedded H2 database of the test profile. Add {@code -t 8} to measure contended checkouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+	private static final String CASHIER = "jmh-cashier";
+	private static final int PRODUCTS = 50;
+
+	private ConfigurableApplicationContext context;
+	private SaleService saleService;
+	private final List<Long> productIds = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = new SpringApplicationBuilder(KioscoLaMadrinaApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "management.server.port=0", "logging.level.root=WARN")
+				.run();
+		saleService = context.getBean(SaleService.class);
+
+		context.getBean(UserRepository.class)
+				.save(User.builder().username(CASHIER).password("unused").role(Role.EMPLOYEE).build());
+		ProductRepository productRepository = context.getBean(ProductRepository.class);
+		for (int i = 0; i < PRODUCTS; i++) {
+			productIds.add(productRepository.save(Product.builder()
+					.barcode("JMH-" + i)
+					.name("JMH product " + i)
+					.price(new BigDecimal("199.90"))
+					.stockQuantity(Integer.MAX_VALUE / 2)
+					.build()).getId());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public SaleResponseDTO createSale() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(PRODUCTS);
+		int second = (first + 1 + random.nextInt(PRODUCTS - 1)) % PRODUCTS;
+		SaleRequestDTO request = new SaleRequestDTO(List.of(
+				new SaleItemRequestDTO(productIds.get(first), 1),
+				new SaleItemRequestDTO(productIds.get(second), 2)));
+		return saleService.createSale(request, CASHIER);
+	}
+}
@@ -0,0 +1,55 @@
+package devMario.example.kioscoLaMadrina.jmh;
+
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.security.jwt.JwtUtils;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils token verification, as run by AuthTokenFilter on every request that misses the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+	private JwtUtils jwtUtils;
+	private String token;
+
+	@Setup(Level.Trial)
+	public void issueToken() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000L);
+		ReflectionTestUtils.setField(jwtUtils, "selfContainedClaims", true);
+		ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+		User user = User.builder().id(7L).username("cajero").password("unused").role(Role.EMPLOYEE).build();
+		UserDetailsImpl principal = UserDetailsImpl.build(user);
+		token = jwtUtils.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@Benchmark
+	public Claims verify() {
+		return jwtUtils.parseVerifiedClaims(token);
+	}
+
+	@Benchmark
+	public UserDetailsImpl verifyAndBuildPrincipal() {
+		return jwtUtils.principalFromClaims(jwtUtils.parseVerifiedClaims(token));
+	}
+}
@@ -0,0 +1,90 @@
+package devMario.example.kioscoLaMadrina.jmh;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.mapper.ProductMapper;
+import devMario.example.kioscoLaMadrina.mapper.SaleMapper;
+import devMario.example.kioscoLaMadrina.model.Category;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.Sale;
+import devMario.example.kioscoLaMadrina.model.SaleDetail;
+import devMario.example.kioscoLaMadrina.model.User;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct conversions of large lists, as done by the product list and sales history endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int size;
+
+	private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+	private final SaleMapper saleMapper = Mappers.getMapper(SaleMapper.class);
+
+	private List<Product> products;
+	private List<Sale> sales;
+
+	@Setup(Level.Trial)
+	public void buildEntities() {
+		Category category = Category.builder().id(1L).name("Bebidas").build();
+		User cashier = User.builder().id(1L).username("cajero").password("unused").role(Role.EMPLOYEE).build();
+
+		products = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			products.add(Product.builder()
+					.id((long) i)
+					.barcode("779" + String.format("%010d", i))
+					.name("Producto " + i)
+					.price(new BigDecimal("1250.50"))
+					.stockQuantity(100)
+					.category(category)
+					.build());
+		}
+
+		sales = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Sale sale = Sale.builder()
+					.id((long) i)
+					.dateTime(LocalDateTime.of(2024, 5, 1, 10, 0).plusMinutes(i))
+					.totalAmount(new BigDecimal("3751.50"))
+					.user(cashier)
+					.build();
+			for (int d = 0; d < 3; d++) {
+				sale.getDetails().add(SaleDetail.builder()
+						.id((long) i * 3 + d)
+						.sale(sale)
+						.product(products.get((i + d) % size))
+						.quantity(1)
+						.unitPrice(new BigDecimal("1250.50"))
+						.subtotal(new BigDecimal("1250.50"))
+						.build());
+			}
+			sales.add(sale);
+		}
+	}
+
+	@Benchmark
+	public List<ProductDTO> products() {
+		return products.stream().map(productMapper::toDTO).toList();
+	}
+
+	@Benchmark
+	public List<SaleResponseDTO> sales() {
+		return sales.stream().map(saleMapper::toDTO).toList();
+	}
+}
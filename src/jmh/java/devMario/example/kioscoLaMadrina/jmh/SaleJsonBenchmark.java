@@ -0,0 +1,58 @@
+package devMario.example.kioscoLaMadrina.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.dto.SaleDetailDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of SaleResponseDTO with an ObjectMapper built the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleJsonBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int lines;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private SaleResponseDTO sale;
+	private List<SaleResponseDTO> page;
+
+	@Setup(Level.Trial)
+	public void buildSale() {
+		List<SaleDetailDTO> details = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			details.add(new SaleDetailDTO((long) i, "Producto " + i, 2, new BigDecimal("1250.50"),
+					new BigDecimal("2501.00")));
+		}
+		sale = new SaleResponseDTO(1L, LocalDateTime.of(2024, 5, 1, 10, 30), new BigDecimal("2501.00").multiply(
+				BigDecimal.valueOf(lines)), "cajero", details);
+		page = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			page.add(sale);
+		}
+	}
+
+	@Benchmark
+	public byte[] single() throws Exception {
+		return objectMapper.writeValueAsBytes(sale);
+	}
+
+	@Benchmark
+	public byte[] historyPage() throws Exception {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
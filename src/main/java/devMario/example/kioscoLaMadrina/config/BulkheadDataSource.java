@@ -0,0 +1,97 @@
+package devMario.example.kioscoLaMadrina.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts a fair semaphore in front of the connection pool: a permit is taken when a connection is borrowed
+ * and returned when it is closed. With as many permits as pooled connections, callers queue here in
+ * arrival order (for up to {@code timeoutMs}) instead of racing inside the pool and failing after its
+ * connection-timeout, which matters once thousands of virtual threads can ask at the same time.
+ */
+public class BulkheadDataSource extends DelegatingDataSource implements MeterBinder {
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+    private volatile Timer waitTimer;
+
+    public BulkheadDataSource(DataSource target, int permits, long timeoutMs) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return borrow(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return borrow(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kiosco.db.bulkhead.available", permits, Semaphore::availablePermits).register(registry);
+        Gauge.builder("kiosco.db.bulkhead.waiting", permits, Semaphore::getQueueLength).register(registry);
+        waitTimer = Timer.builder("kiosco.db.bulkhead.wait").register(registry);
+    }
+
+    private Connection borrow(ConnectionSource source) throws SQLException {
+        long started = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No database permit available within " + timeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            return releasingOnClose(source.get());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
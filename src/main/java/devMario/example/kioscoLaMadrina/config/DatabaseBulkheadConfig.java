@@ -0,0 +1,43 @@
+package devMario.example.kioscoLaMadrina.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link BulkheadDataSource}. On by default together with
+ * virtual threads (kiosco.app.dbBulkheadEnabled).
+ */
+@Configuration
+@ConditionalOnProperty(name = "kiosco.app.dbBulkheadEnabled", havingValue = "true")
+public class DatabaseBulkheadConfig {
+
+    @Bean
+    static BeanPostProcessor databaseBulkheadPostProcessor(Environment environment) {
+        int permits = environment.getRequiredProperty("kiosco.app.dbBulkheadPermits", Integer.class);
+        long timeoutMs = environment.getRequiredProperty("kiosco.app.dbBulkheadTimeoutMs", Long.class);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, permits, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                bulkhead.bindTo(registry);
+            }
+        };
+    }
+}
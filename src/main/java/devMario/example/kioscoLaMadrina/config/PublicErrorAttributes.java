@@ -0,0 +1,26 @@
+package devMario.example.kioscoLaMadrina.config;
+
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+/**
+ * Error bodies served by {@code /error}, which is open to anonymous callers. Messages of 4xx and deliberate
+ * 5xx responses are meant for the client and are kept ({@code server.error.include-message}). A 500 only comes
+ * from an unexpected exception, whose message may describe internals (SQL, hosts, file paths), so it is dropped.
+ */
+@Component
+public class PublicErrorAttributes extends DefaultErrorAttributes {
+
+    @Override
+    public Map<String, Object> getErrorAttributes(WebRequest webRequest, ErrorAttributeOptions options) {
+        Map<String, Object> attributes = super.getErrorAttributes(webRequest, options);
+        if (Integer.valueOf(500).equals(attributes.get("status"))) {
+            attributes.remove("message");
+        }
+        return attributes;
+    }
+}
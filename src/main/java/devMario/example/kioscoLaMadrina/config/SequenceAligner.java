@@ -0,0 +1,54 @@
+package devMario.example.kioscoLaMadrina.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Tables that moved from IDENTITY to pooled sequence ids already hold rows, while Hibernate creates
+ * their sequences starting at 1. Before the web server accepts requests, each sequence is moved past
+ * the highest existing id so new blocks never collide with old rows.
+ */
+@Component
+public class SequenceAligner implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAligner.class);
+
+    // table -> sequence; every sequence listed here uses allocationSize = ALLOCATION_SIZE
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "sales", "sales_seq",
+            "sale_details", "sale_details_seq",
+            "products", "products_seq");
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        // The pooled optimizer hands out (value - ALLOCATION_SIZE, value], so the block must start above maxId.
+        if (next - ALLOCATION_SIZE < maxId) {
+            long restart = maxId + ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+            logger.info("Sequence {} moved past existing {} ids (restart at {})", sequence, table, restart);
+        }
+    }
+}
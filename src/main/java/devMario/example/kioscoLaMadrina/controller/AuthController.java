@@ -1,13 +1,16 @@
 package devMario.example.kioscoLaMadrina.controller;
 
 import devMario.example.kioscoLaMadrina.dto.*;
+import devMario.example.kioscoLaMadrina.event.AccountChangedEvent;
 import devMario.example.kioscoLaMadrina.model.Role;
 import devMario.example.kioscoLaMadrina.model.User;
 import devMario.example.kioscoLaMadrina.repository.UserRepository;
 import devMario.example.kioscoLaMadrina.security.jwt.JwtUtils;
+import devMario.example.kioscoLaMadrina.security.services.PasswordHashingExecutor;
 import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -38,12 +41,19 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
+
     @Operation(summary = "Sign in user", description = "Authenticates a user and returns a JWT token.")
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody AuthRequestDTO loginRequest) {
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.username(), loginRequest.password()));
+        // BCrypt verification (and rehash, if the configured cost went up) runs on the bounded hashing pool
+        Authentication authentication = passwordHashingExecutor.run(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.username(), loginRequest.password())));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -77,11 +87,12 @@ public class AuthController {
         User user = User.builder()
                 .username(signUpRequest.username())
                 .email(signUpRequest.email())
-                .password(encoder.encode(signUpRequest.password()))
+                .password(passwordHashingExecutor.run(() -> encoder.encode(signUpRequest.password())))
                 .role(userRole)
                 .build();
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(user.getId(), user.getTokenVersion()));
 
         return ResponseEntity.ok("User registered successfully!");
     }
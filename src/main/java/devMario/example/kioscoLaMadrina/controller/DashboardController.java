@@ -0,0 +1,31 @@
+package devMario.example.kioscoLaMadrina.controller;
+
+import devMario.example.kioscoLaMadrina.dto.DashboardSummaryDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import devMario.example.kioscoLaMadrina.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/dashboard")
+@Tag(name = "Dashboard", description = "Business summary for the control panel")
+public class DashboardController {
+    @Autowired
+    DashboardService dashboardService;
+
+    @Operation(summary = "Today's summary", description = "Revenue, tickets and units sold today, plus the low-stock count.")
+    @GetMapping("/summary")
+    public DashboardSummaryDTO summary() {
+        return dashboardService.getSummary();
+    }
+
+    @Operation(summary = "Top selling products", description = "Products ranked by units sold across the whole history.")
+    @GetMapping("/top-products")
+    public List<TopProductDTO> topProducts(@RequestParam(defaultValue = "5") int limit) {
+        return dashboardService.getTopProducts(limit);
+    }
+}
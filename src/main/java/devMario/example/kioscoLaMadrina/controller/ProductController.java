@@ -1,14 +1,44 @@
 package devMario.example.kioscoLaMadrina.controller;
 
+import devMario.example.kioscoLaMadrina.dto.BarcodeIndexStatsDTO;
+import devMario.example.kioscoLaMadrina.dto.ImportFormat;
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentResultDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductChangesDTO;
 import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductImportResultDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductPageDTO;
+import devMario.example.kioscoLaMadrina.service.ProductImportService;
 import devMario.example.kioscoLaMadrina.service.ProductService;
+import devMario.example.kioscoLaMadrina.service.impl.CatalogSnapshot;
+import devMario.example.kioscoLaMadrina.service.impl.CatalogStream;
+import devMario.example.kioscoLaMadrina.service.impl.LowStockNotifier;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -18,10 +48,87 @@ public class ProductController {
     @Autowired
     ProductService productService;
 
-    @Operation(summary = "List products", description = "Retrieves all products.")
+    @Autowired
+    LowStockNotifier lowStockNotifier;
+
+    @Autowired
+    CatalogStream catalogStream;
+
+    @Autowired
+    CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    ProductImportService productImportService;
+
+    @Operation(summary = "List products", description = "Retrieves all products, gzip-compressed when the client "
+            + "accepts it. The ETag names the catalog version; send it back in If-None-Match to get 304 Not Modified "
+            + "while nothing has changed.")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class))))
     @GetMapping
-    public List<ProductDTO> list() {
-        return productService.findAll();
+    public ResponseEntity<byte[]> list(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = catalogEtag(snapshot.version(), gzip);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? snapshot.gzip() : snapshot.json());
+    }
+
+    @Operation(summary = "Catalog changes", description = "Products created or changed and ids of products deleted "
+            + "after the given catalog version (0 for everything). Pass the returned version as 'since' next time.")
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> changes(@RequestParam long since, WebRequest request) {
+        String etag = catalogEtag(productService.getCatalogVersion(), false);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                .body(productService.findChangesSince(since));
+    }
+
+    @Operation(summary = "Catalog stream", description = "Server-Sent Events for POS terminals: a 'snapshot' with "
+            + "the whole catalog, then 'stock' ([{id, stock}]), 'product' (full product after other changes) and "
+            + "'removed' ([ids]) events as changes commit.")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return catalogStream.subscribe();
+    }
+
+    @Operation(summary = "Search products", description = "Paginated search by name prefix, name substring or barcode, "
+            + "best matches first. Optionally filtered by category and active flag.")
+    @GetMapping("/search")
+    public ProductPageDTO search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return productService.search(q, categoryId, active, page, size);
+    }
+
+    @Operation(summary = "Low stock", description = "Active products below their reorder threshold, lowest stock first.")
+    @GetMapping("/low-stock")
+    public List<LowStockProductDTO> lowStock() {
+        return productService.getLowStock();
+    }
+
+    @Operation(summary = "Low stock stream", description = "Server-Sent Events: a 'snapshot' with the current list, "
+            + "then 'low' (entered or changed below the threshold) and 'cleared' events as sales and edits happen.")
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter lowStockStream() {
+        return lowStockNotifier.subscribe();
     }
 
     @Operation(summary = "Get product by ID", description = "Retrieves a specific product by its ID.")
@@ -30,6 +137,19 @@ public class ProductController {
         return productService.findById(id);
     }
 
+    @Operation(summary = "Get product by barcode", description = "Looks up a scanned barcode in the in-memory catalog index.")
+    @GetMapping("/barcode/{code}")
+    public ProductDTO getByBarcode(@PathVariable String code) {
+        return productService.findByBarcode(code);
+    }
+
+    @Operation(summary = "Barcode index stats", description = "Size and hit/miss counters of the barcode index. Requires ADMIN role.")
+    @GetMapping("/barcode-index/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public BarcodeIndexStatsDTO barcodeIndexStats() {
+        return productService.getBarcodeIndexStats();
+    }
+
     @Operation(summary = "Create product", description = "Creates a new product. Requires ADMIN role.")
     @PostMapping
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -37,6 +157,38 @@ public class ProductController {
         return productService.create(dto);
     }
 
+    @Operation(summary = "Import products", description = "Creates or updates products, matched by barcode, from a CSV "
+            + "(header row; columns barcode, name, price, stockQuantity and optionally category, categoryId, active, "
+            + "reorderThreshold) or NDJSON upload, optionally gzip-compressed (Content-Encoding: gzip). Invalid rows are "
+            + "reported and skipped. Requires ADMIN role.")
+    @PostMapping("/import")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ProductImportResultDTO importProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        ImportFormat importFormat;
+        try {
+            importFormat = ImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + format);
+        }
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 8192) : body;
+        return productImportService.importProducts(importFormat, in);
+    }
+
+    @Operation(summary = "Adjust products in bulk", description = "Applies a percentage or fixed price change, or a stock "
+            + "adjustment, to every product matching the filter (categoryId, name contained, exact barcode) in one "
+            + "update, and records it in the audit log. With dryRun=true only counts the matching products and those "
+            + "the change would leave invalid. Requires ADMIN role.")
+    @PostMapping("/adjust")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ProductAdjustmentResultDTO adjust(@Valid @RequestBody ProductAdjustmentRequestDTO request,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return productService.adjust(request, dryRun, userDetails.getUsername());
+    }
+
     @Operation(summary = "Update product", description = "Updates an existing product. Requires ADMIN role.")
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -50,4 +202,35 @@ public class ProductController {
     public void delete(@PathVariable Long id) {
         productService.delete(id);
     }
+
+    // Whether Accept-Encoding allows gzip, naming it (or x-gzip) explicitly or through "*", without q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    accepted = false;
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = accepted;
+            } else if (name.equals("*")) {
+                any = accepted;
+            }
+        }
+        return gzip != null ? gzip : Boolean.TRUE.equals(any);
+    }
+
+    // Each encoding is a different representation, so it gets its own ETag
+    private static String catalogEtag(long version, boolean gzip) {
+        return "\"catalog-" + version + (gzip ? "-gzip" : "") + "\"";
+    }
 }
@@ -0,0 +1,50 @@
+package devMario.example.kioscoLaMadrina.controller;
+
+import devMario.example.kioscoLaMadrina.dto.CategoryRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.HourlyRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import devMario.example.kioscoLaMadrina.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/reports")
+@PreAuthorize("hasAuthority('ADMIN')")
+@Tag(name = "Reports", description = "Sales reports over a range of days. Requires ADMIN role.")
+public class ReportController {
+    @Autowired
+    ReportService reportService;
+
+    @Operation(summary = "Top selling products", description = "Products ranked by units sold between two dates (inclusive).")
+    @GetMapping("/top-products")
+    public List<TopProductDTO> topProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return reportService.getTopProducts(from, to, limit);
+    }
+
+    @Operation(summary = "Revenue by category", description = "Units and revenue per category between two dates "
+            + "(inclusive). Products without a category are grouped under a null category.")
+    @GetMapping("/revenue-by-category")
+    public List<CategoryRevenueDTO> revenueByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return reportService.getRevenueByCategory(from, to);
+    }
+
+    @Operation(summary = "Revenue by hour", description = "Units and revenue per hour of the day (0-23) between two dates (inclusive).")
+    @GetMapping("/revenue-by-hour")
+    public List<HourlyRevenueDTO> revenueByHour(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return reportService.getRevenueByHour(from, to);
+    }
+}
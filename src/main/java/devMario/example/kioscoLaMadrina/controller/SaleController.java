@@ -1,16 +1,44 @@
 package devMario.example.kioscoLaMadrina.controller;
 
+import devMario.example.kioscoLaMadrina.dto.ExportFormat;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchResultDTO;
+import devMario.example.kioscoLaMadrina.dto.SalePageDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleSearchCriteria;
+import devMario.example.kioscoLaMadrina.service.SaleExportService;
 import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.impl.GroupCommitCheckout;
+import devMario.example.kioscoLaMadrina.service.impl.IdempotentCheckout;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -20,16 +48,142 @@ public class SaleController {
     @Autowired
     SaleService saleService;
 
-    @Operation(summary = "Register sale", description = "Creates a new sale transaction for the authenticated user.")
+    @Autowired
+    SaleExportService saleExportService;
+
+    // Present only when kiosco.app.checkoutMode=group
+    @Autowired(required = false)
+    GroupCommitCheckout groupCommitCheckout;
+
+    @Autowired
+    IdempotentCheckout idempotentCheckout;
+
+    @Value("${kiosco.app.exportTimeoutMs}")
+    long exportTimeoutMs;
+
+    @Value("${kiosco.app.exportMaxConcurrent}")
+    int exportMaxConcurrent;
+
+    // Each running export holds one of the pool's connections until it ends
+    private Semaphore exportPermits;
+
+    @PostConstruct
+    void initExportPermits() {
+        exportPermits = new Semaphore(exportMaxConcurrent);
+    }
+
+    @Operation(summary = "Register sale", description = "Creates a new sale transaction for the authenticated user. "
+            + "With an Idempotency-Key header, repeating the request returns the first result instead of selling again.")
     @PostMapping
-    public SaleResponseDTO createSale(@Valid @RequestBody SaleRequestDTO request) {
+    public SaleResponseDTO createSale(@Valid @RequestBody SaleRequestDTO request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return saleService.createSale(request, userDetails.getUsername());
+        String username = userDetails.getUsername();
+        if (idempotencyKey == null) {
+            return checkout(request, username);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must have 1 to 255 characters");
+        }
+        return idempotentCheckout.submit(idempotencyKey, username, request, () -> checkout(request, username));
     }
 
-    @Operation(summary = "List sales", description = "Retrieves all recorded sales.")
+    @Operation(summary = "Upload offline sales", description = "Records up to 500 tickets queued by an offline terminal "
+            + "in one transaction. Tickets already uploaded (same clientId) are reported as DUPLICATE.")
+    @PostMapping("/batch")
+    public SaleBatchResultDTO createBatch(@Valid @RequestBody SaleBatchRequestDTO batch) {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return saleService.importOfflineSales(batch, userDetails.getUsername());
+    }
+
+    @Operation(summary = "List sales", description = "Retrieves recorded sales, newest first, one page at a time. "
+            + "Pass the returned nextCursor to get the following page.")
     @GetMapping
-    public List<SaleResponseDTO> list() {
-        return saleService.findAll();
+    public SalePageDTO list(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cashier,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        SaleSearchCriteria criteria = new SaleSearchCriteria(from, to, cashier, productId, minTotal);
+        return saleService.findPage(criteria, cursor, limit);
+    }
+
+    @Operation(summary = "Export sales", description = "Streams sales (level=sales) or their line items (level=details) "
+            + "as CSV or NDJSON, optionally gzip-compressed. Requires ADMIN role. Answers 503 while too many exports "
+            + "are already running.")
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(HttpServletRequest request,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "details") String level,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        boolean details = switch (level) {
+            case "details" -> true;
+            case "sales" -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export level: " + level);
+        };
+
+        if (!exportPermits.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running, try again later");
+        }
+        // Released exactly once: by the body when it ends, or by the async request if the body never runs
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releasePermit = () -> {
+            if (released.compareAndSet(false, true)) {
+                exportPermits.release();
+            }
+        };
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream zipped = new GZIPOutputStream(out, 8192);
+                    write(details, exportFormat, from, to, zipped);
+                    zipped.finish();
+                } else {
+                    write(details, exportFormat, from, to, out);
+                }
+            } finally {
+                releasePermit.run();
+            }
+        };
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        // Exports may run far longer than other async requests; the longer timeout applies to this request only.
+        asyncRequest.setTimeout(exportTimeoutMs);
+        asyncRequest.addTimeoutHandler(releasePermit);
+        asyncRequest.addErrorHandler(error -> releasePermit.run());
+        asyncRequest.addCompletionHandler(releasePermit);
+
+        String filename = (details ? "sale-details." : "sales.") + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private SaleResponseDTO checkout(SaleRequestDTO request, String username) {
+        if (groupCommitCheckout != null) {
+            return groupCommitCheckout.submit(request, username);
+        }
+        return saleService.createSale(request, username);
+    }
+
+    private void write(boolean details, ExportFormat format, LocalDateTime from, LocalDateTime to,
+            OutputStream out) throws IOException {
+        if (details) {
+            saleExportService.exportSaleDetails(format, from, to, out);
+        } else {
+            saleExportService.exportSales(format, from, to, out);
+        }
     }
 }
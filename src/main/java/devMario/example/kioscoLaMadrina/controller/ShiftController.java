@@ -0,0 +1,52 @@
+package devMario.example.kioscoLaMadrina.controller;
+
+import devMario.example.kioscoLaMadrina.dto.ShiftReportDTO;
+import devMario.example.kioscoLaMadrina.service.ShiftService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/shifts")
+@Tag(name = "Shifts", description = "Cashier register shifts and their closing reports")
+public class ShiftController {
+    @Autowired
+    ShiftService shiftService;
+
+    @Operation(summary = "Open shift", description = "Opens a shift for the authenticated cashier. Sales recorded "
+            + "while it is open count towards its totals.")
+    @PostMapping("/open")
+    public ShiftReportDTO open() {
+        return shiftService.open(currentUsername());
+    }
+
+    @Operation(summary = "Current shift", description = "Running totals of the authenticated cashier's open shift.")
+    @GetMapping("/current")
+    public ShiftReportDTO current() {
+        return shiftService.getCurrent(currentUsername());
+    }
+
+    @Operation(summary = "Close shift", description = "Closes the authenticated cashier's open shift and returns its "
+            + "closing (Z) report: tickets, revenue, units and units per product.")
+    @PostMapping("/close")
+    public ShiftReportDTO close() {
+        return shiftService.close(currentUsername());
+    }
+
+    @Operation(summary = "Get shift", description = "Totals of any shift, open or closed. Requires ADMIN role.")
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ShiftReportDTO get(@PathVariable Long id) {
+        return shiftService.findById(id);
+    }
+
+    private static String currentUsername() {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userDetails.getUsername();
+    }
+}
@@ -0,0 +1,34 @@
+package devMario.example.kioscoLaMadrina.controller;
+
+import devMario.example.kioscoLaMadrina.dto.UserDTO;
+import devMario.example.kioscoLaMadrina.dto.UserUpdateDTO;
+import devMario.example.kioscoLaMadrina.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/users")
+@PreAuthorize("hasAuthority('ADMIN')")
+@Tag(name = "Users", description = "Administration of user accounts")
+public class UserController {
+    @Autowired
+    UserService userService;
+
+    @Operation(summary = "List users", description = "Retrieves all user accounts. Requires ADMIN role.")
+    @GetMapping
+    public List<UserDTO> list() {
+        return userService.findAll();
+    }
+
+    @Operation(summary = "Update user", description = "Changes a user's role or active flag. Tokens issued before "
+            + "the change stop working. Requires ADMIN role.")
+    @PatchMapping("/{id}")
+    public UserDTO update(@PathVariable Long id, @RequestBody UserUpdateDTO update) {
+        return userService.update(id, update);
+    }
+}
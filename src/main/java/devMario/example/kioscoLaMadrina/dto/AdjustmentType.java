@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public enum AdjustmentType {
+    // Price times (1 + amount / 100), rounded to cents
+    PRICE_PERCENT,
+    // Price plus amount
+    PRICE_AMOUNT,
+    // Stock plus amount (a whole number)
+    STOCK
+}
@@ -0,0 +1,7 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public record BarcodeIndexStatsDTO(
+        int entries,
+        long hits,
+        long misses) {
+}
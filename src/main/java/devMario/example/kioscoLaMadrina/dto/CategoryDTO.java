@@ -1,10 +1,12 @@
 package devMario.example.kioscoLaMadrina.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 public record CategoryDTO(
         @Schema(accessMode = Schema.AccessMode.READ_ONLY) Long id,
         @NotBlank String name,
-        String description) {
+        String description,
+        @Min(0) Integer reorderThreshold) {
 }
@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+
+public record CategoryRevenueDTO(
+        Long categoryId,
+        String categoryName,
+        Long unitsSold,
+        BigDecimal revenue) {
+}
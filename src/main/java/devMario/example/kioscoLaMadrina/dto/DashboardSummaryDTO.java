@@ -0,0 +1,12 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DashboardSummaryDTO(
+        LocalDate date,
+        BigDecimal revenue,
+        Long ticketCount,
+        Long unitsSold,
+        Long lowStockCount) {
+}
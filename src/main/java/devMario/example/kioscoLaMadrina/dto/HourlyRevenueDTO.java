@@ -0,0 +1,9 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+
+public record HourlyRevenueDTO(
+        Integer hour,
+        Long unitsSold,
+        BigDecimal revenue) {
+}
@@ -0,0 +1,6 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,11 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public record LowStockProductDTO(
+        Long productId,
+        String barcode,
+        String name,
+        Integer stockQuantity,
+        Integer reorderThreshold,
+        Long categoryId,
+        String categoryName) {
+}
@@ -0,0 +1,15 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OfflineSaleDTO(
+        @NotBlank @Size(max = 64) String clientId,
+        @NotNull LocalDateTime dateTime,
+        @NotEmpty List<@Valid SaleItemRequestDTO> items) {
+}
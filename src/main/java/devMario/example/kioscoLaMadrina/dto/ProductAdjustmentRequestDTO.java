@@ -0,0 +1,16 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * A change applied to every product matching the filter: {@code categoryId}, {@code name} (contained,
+ * case-insensitive) and {@code barcode} (exact). At least one filter is required.
+ */
+public record ProductAdjustmentRequestDTO(
+        Long categoryId,
+        String name,
+        String barcode,
+        @NotNull AdjustmentType type,
+        @NotNull BigDecimal amount) {
+}
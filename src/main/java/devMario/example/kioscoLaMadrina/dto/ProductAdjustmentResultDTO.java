@@ -0,0 +1,12 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+/**
+ * Outcome of a bulk adjustment. {@code rejected} counts matching products the change would leave with a price
+ * of 0 or less, or negative stock; if there are any, nothing is changed. {@code updated} is 0 on a dry run.
+ */
+public record ProductAdjustmentResultDTO(
+        boolean dryRun,
+        long matched,
+        long rejected,
+        int updated) {
+}
@@ -0,0 +1,9 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.util.List;
+
+public record ProductChangesDTO(
+        long version,
+        List<ProductDTO> updated,
+        List<Long> deleted) {
+}
@@ -11,5 +11,28 @@ public record ProductDTO(
                 @NotNull @Positive BigDecimal price,
                 @NotNull @Min(0) Integer stockQuantity,
                 Long categoryId,
-                String categoryName) {
+                String categoryName,
+                Boolean active,
+                @Min(0) Integer reorderThreshold,
+                @Schema(accessMode = Schema.AccessMode.READ_ONLY) Long version) {
+
+        public ProductDTO withStockQuantity(Integer stockQuantity) {
+                return new ProductDTO(id, barcode, name, price, stockQuantity, categoryId, categoryName, active,
+                                reorderThreshold, version);
+        }
+
+        public ProductDTO withPrice(BigDecimal price) {
+                return new ProductDTO(id, barcode, name, price, stockQuantity, categoryId, categoryName, active,
+                                reorderThreshold, version);
+        }
+
+        public ProductDTO withCategory(Long categoryId, String categoryName) {
+                return new ProductDTO(id, barcode, name, price, stockQuantity, categoryId, categoryName, active,
+                                reorderThreshold, version);
+        }
+
+        public ProductDTO withVersion(Long version) {
+                return new ProductDTO(id, barcode, name, price, stockQuantity, categoryId, categoryName, active,
+                                reorderThreshold, version);
+        }
 }
@@ -0,0 +1,7 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public record ProductImportErrorDTO(
+        long line,
+        String barcode,
+        String error) {
+}
@@ -0,0 +1,14 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a product import. {@code errors} lists at most the first 1000 rejected rows; {@code rejected}
+ * counts all of them.
+ */
+public record ProductImportResultDTO(
+        int created,
+        int updated,
+        int rejected,
+        List<ProductImportErrorDTO> errors) {
+}
@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.util.List;
+
+public record ProductPageDTO(
+        List<ProductDTO> items,
+        int page,
+        int size,
+        long totalElements) {
+}
@@ -0,0 +1,14 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public record SaleBatchItemResultDTO(
+        String clientId,
+        Status status,
+        Long saleId,
+        String error) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+}
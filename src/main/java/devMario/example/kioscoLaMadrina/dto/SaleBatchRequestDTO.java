@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record SaleBatchRequestDTO(
+        @NotEmpty @Size(max = 500) List<@Valid OfflineSaleDTO> sales) {
+}
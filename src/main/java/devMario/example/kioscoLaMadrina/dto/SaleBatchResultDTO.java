@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.util.List;
+
+public record SaleBatchResultDTO(
+        int created,
+        int duplicates,
+        int rejected,
+        List<SaleBatchItemResultDTO> results) {
+}
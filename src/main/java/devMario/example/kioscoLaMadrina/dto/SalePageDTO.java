@@ -0,0 +1,8 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.util.List;
+
+public record SalePageDTO(
+        List<SaleResponseDTO> items,
+        String nextCursor) {
+}
@@ -0,0 +1,12 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SaleSearchCriteria(
+        LocalDateTime from,
+        LocalDateTime to,
+        String cashier,
+        Long productId,
+        BigDecimal minTotal) {
+}
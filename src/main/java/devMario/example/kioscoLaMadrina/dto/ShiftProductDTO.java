@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+
+public record ShiftProductDTO(
+        Long productId,
+        String productName,
+        long unitsSold,
+        BigDecimal revenue) {
+}
@@ -0,0 +1,19 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Totals of one shift: running totals while it is open, the closing (Z) report once {@code closedAt} is set.
+ */
+public record ShiftReportDTO(
+        Long shiftId,
+        String username,
+        LocalDateTime openedAt,
+        LocalDateTime closedAt,
+        long ticketCount,
+        BigDecimal revenue,
+        long unitsSold,
+        List<ShiftProductDTO> products) {
+}
@@ -0,0 +1,6 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+public record StockLevelDTO(
+        Long id,
+        Integer stock) {
+}
@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import java.math.BigDecimal;
+
+public record TopProductDTO(
+        Long productId,
+        String productName,
+        Long unitsSold,
+        BigDecimal revenue) {
+}
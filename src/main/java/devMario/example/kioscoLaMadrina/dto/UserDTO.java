@@ -0,0 +1,11 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import devMario.example.kioscoLaMadrina.model.Role;
+
+public record UserDTO(
+        Long id,
+        String username,
+        String email,
+        Role role,
+        boolean active) {
+}
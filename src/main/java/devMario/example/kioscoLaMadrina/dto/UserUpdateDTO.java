@@ -0,0 +1,11 @@
+package devMario.example.kioscoLaMadrina.dto;
+
+import devMario.example.kioscoLaMadrina.model.Role;
+
+/**
+ * Fields left null are not changed.
+ */
+public record UserUpdateDTO(
+        Role role,
+        Boolean active) {
+}
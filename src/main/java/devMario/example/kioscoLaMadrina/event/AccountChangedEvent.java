@@ -0,0 +1,7 @@
+package devMario.example.kioscoLaMadrina.event;
+
+/**
+ * A user account was created or had its role or active flag changed; {@code tokenVersion} is its new version.
+ */
+public record AccountChangedEvent(Long userId, int tokenVersion) {
+}
@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import java.util.List;
+
+/**
+ * The in-memory catalog has applied a committed change to these products. {@code stockOnly} is true when
+ * only their stock moved (a sale), false when anything else may have changed or the product was deleted.
+ */
+public record CatalogChangedEvent(List<Long> productIds, boolean stockOnly) {
+}
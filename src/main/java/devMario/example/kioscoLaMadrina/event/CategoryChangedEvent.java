@@ -0,0 +1,25 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import java.util.Map;
+
+/**
+ * A category was created or updated ({@code name} and {@code reorderThreshold} hold its new state) or deleted
+ * ({@code name} is null). Its products were stamped with catalog version {@code version};
+ * {@code productRevisions} maps each of them to its revision after the change.
+ */
+public record CategoryChangedEvent(Long categoryId, String name, Integer reorderThreshold, long version,
+        Map<Long, Long> productRevisions) {
+
+    public static CategoryChangedEvent saved(Long categoryId, String name, Integer reorderThreshold, long version,
+            Map<Long, Long> productRevisions) {
+        return new CategoryChangedEvent(categoryId, name, reorderThreshold, version, productRevisions);
+    }
+
+    public static CategoryChangedEvent deleted(Long categoryId, long version, Map<Long, Long> productRevisions) {
+        return new CategoryChangedEvent(categoryId, null, null, version, productRevisions);
+    }
+
+    public boolean isDeleted() {
+        return name == null;
+    }
+}
@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+
+/**
+ * A product entered or changed while below its reorder threshold ({@code low} true), or left that state
+ * ({@code low} false: restocked, deactivated, deleted or given a lower threshold). Published after commit.
+ */
+public record LowStockChangedEvent(LowStockProductDTO product, boolean low) {
+}
@@ -0,0 +1,22 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+
+/**
+ * A product was created or updated ({@code product} holds its new state) or deleted ({@code product} is null),
+ * at catalog version {@code version}. {@code revision} is the product's revision after the change.
+ */
+public record ProductChangedEvent(Long productId, ProductDTO product, long version, long revision) {
+
+    public static ProductChangedEvent saved(ProductDTO product, long revision) {
+        return new ProductChangedEvent(product.id(), product, product.version(), revision);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, long version, long revision) {
+        return new ProductChangedEvent(productId, null, version, revision);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
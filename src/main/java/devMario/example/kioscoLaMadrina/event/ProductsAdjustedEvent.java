@@ -0,0 +1,15 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A bulk adjustment stamped these products with catalog version {@code version}. Each entry holds the product's
+ * price and stock as committed and its revision after the change; only the stock ({@code stockOnly}) or only
+ * the price was adjusted.
+ */
+public record ProductsAdjustedEvent(List<Adjusted> products, boolean stockOnly, long version) {
+
+    public record Adjusted(Long productId, BigDecimal price, int stockQuantity, long revision) {
+    }
+}
@@ -0,0 +1,40 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import devMario.example.kioscoLaMadrina.model.Sale;
+import devMario.example.kioscoLaMadrina.model.SaleDetail;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the checkout transaction for every recorded sale. Listeners that keep in-memory
+ * state react after commit, so a rolled-back checkout never shows up in them. {@code catalogVersion} is the
+ * version the sold products' stock changes were stamped with; {@code shiftId} is the cashier's open shift, if any.
+ */
+public record SaleCompletedEvent(
+        Long saleId,
+        String username,
+        LocalDateTime dateTime,
+        BigDecimal totalAmount,
+        List<Line> lines,
+        long catalogVersion,
+        Long shiftId) {
+
+    public record Line(Long productId, Long categoryId, int quantity, BigDecimal unitPrice, BigDecimal subtotal) {
+    }
+
+    public static SaleCompletedEvent of(Sale sale, long catalogVersion) {
+        List<Line> lines = sale.getDetails().stream()
+                .map(SaleCompletedEvent::line)
+                .toList();
+        return new SaleCompletedEvent(sale.getId(), sale.getUser().getUsername(), sale.getDateTime(),
+                sale.getTotalAmount(), lines, catalogVersion, sale.getShiftId());
+    }
+
+    private static Line line(SaleDetail detail) {
+        Long categoryId = detail.getProduct().getCategory() != null ? detail.getProduct().getCategory().getId() : null;
+        return new Line(detail.getProduct().getId(), categoryId, detail.getQuantity(), detail.getUnitPrice(),
+                detail.getSubtotal());
+    }
+}
@@ -0,0 +1,13 @@
+package devMario.example.kioscoLaMadrina.event;
+
+import java.util.List;
+
+/**
+ * Checkout moved these products' stock, stamping them with catalog version {@code version}. Each level is the
+ * stock the transaction committed and the product's revision after it, read while the row was still locked.
+ */
+public record StockChangedEvent(List<Level> levels, long version) {
+
+    public record Level(Long productId, int stockQuantity, long revision) {
+    }
+}
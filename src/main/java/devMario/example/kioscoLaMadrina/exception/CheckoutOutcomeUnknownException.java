@@ -0,0 +1,25 @@
+package devMario.example.kioscoLaMadrina.exception;
+
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The caller stopped waiting after its sale was handed to the database: the sale may still be recorded or
+ * rejected. {@link #getOutcome()} completes once it is.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class CheckoutOutcomeUnknownException extends RuntimeException {
+    private final transient CompletableFuture<SaleResponseDTO> outcome;
+
+    public CheckoutOutcomeUnknownException(CompletableFuture<SaleResponseDTO> outcome) {
+        super("The sale is still being recorded, its outcome is unknown");
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<SaleResponseDTO> getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,18 @@
+package devMario.example.kioscoLaMadrina.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, String productName) {
+        super("Insufficient stock for product: " + productName);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
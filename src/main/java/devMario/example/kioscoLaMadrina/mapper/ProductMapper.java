@@ -9,9 +9,15 @@ import org.mapstruct.Mapping;
 public interface ProductMapper {
     @Mapping(target = "categoryId", source = "category.id")
     @Mapping(target = "categoryName", source = "category.name")
+    // ProductDTO's withers look like fluent setters to MapStruct
+    @Mapping(target = "withStockQuantity", ignore = true)
+    @Mapping(target = "withPrice", ignore = true)
+    @Mapping(target = "withVersion", ignore = true)
     ProductDTO toDTO(Product product);
 
     @Mapping(target = "category", ignore = true)
-    @Mapping(target = "active", constant = "true")
+    @Mapping(target = "active", defaultValue = "true")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "revision", ignore = true)
     Product toEntity(ProductDTO dto);
 }
@@ -19,4 +19,7 @@ public class Category {
     private String name;
 
     private String description;
+
+    // Default reorder threshold for the category's products; null falls back to kiosco.app.lowStockThreshold
+    private Integer reorderThreshold;
 }
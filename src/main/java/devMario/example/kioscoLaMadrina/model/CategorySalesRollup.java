@@ -0,0 +1,43 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue per category for one day. Products without a category are kept under
+ * {@link #UNCATEGORIZED}, since the id is part of the primary key. The category is the product's at the time of sale.
+ */
+@Entity
+@Table(name = "category_sales_daily")
+@IdClass(CategorySalesRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySalesRollup {
+    public static final long UNCATEGORIZED = 0L;
+
+    @Id
+    private LocalDate saleDate;
+
+    @Id
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private Long unitsSold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate saleDate;
+        private Long categoryId;
+    }
+}
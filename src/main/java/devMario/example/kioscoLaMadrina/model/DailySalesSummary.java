@@ -0,0 +1,27 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_sales_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySalesSummary {
+    @Id
+    private LocalDate saleDate;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long ticketCount;
+
+    @Column(nullable = false)
+    private Long unitsSold;
+}
@@ -5,15 +5,21 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_stock", columnList = "stockQuantity"),
+        // findAdjustedByVersion and findMaxVersion seek on it instead of scanning the table
+        @Index(name = "idx_products_version", columnList = "version")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
+    // Pooled sequence ids (not IDENTITY) so catalog imports can batch their inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -34,4 +40,18 @@ public class Product {
 
     @Builder.Default
     private boolean active = true;
+
+    // Low-stock alert below this quantity; null falls back to the category's, then to kiosco.app.lowStockThreshold
+    private Integer reorderThreshold;
+
+    // Catalog version of the last change to this product, stock included (see CatalogVersions)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long version = 0L;
+
+    // Incremented by every write to the row while it is locked, so unlike the catalog version (allocated before
+    // the lock) it orders the row's changes as they committed. ProductIndex uses it to drop late events.
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long revision = 0L;
 }
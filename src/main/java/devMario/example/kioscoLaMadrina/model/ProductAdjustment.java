@@ -0,0 +1,51 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import devMario.example.kioscoLaMadrina.dto.AdjustmentType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Audit entry for one bulk price or stock adjustment: who ran it, the filter, the change and how many
+ * products it updated.
+ */
+@Entity
+@Table(name = "product_adjustments")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAdjustment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AdjustmentType type;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    private Long categoryId;
+
+    private String nameFilter;
+
+    private String barcodeFilter;
+
+    @Column(nullable = false)
+    private Integer updatedCount;
+
+    // Catalog version the updated products were stamped with
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,45 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue per product for one hour of one day, kept up to date by every checkout so reports
+ * read these rows instead of the sale details.
+ */
+@Entity
+@Table(name = "product_sales_hourly")
+@IdClass(ProductSalesRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesRollup {
+    @Id
+    private LocalDate saleDate;
+
+    @Id
+    private Integer saleHour;
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long unitsSold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate saleDate;
+        private Integer saleHour;
+        private Long productId;
+    }
+}
@@ -0,0 +1,23 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Marks a deleted product, so clients syncing with /api/products/changes learn about the deletion.
+ */
+@Entity
+@Table(name = "product_tombstones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductTombstone {
+    @Id
+    private Long productId;
+
+    // Catalog version of the deletion
+    @Column(nullable = false)
+    private Long version;
+}
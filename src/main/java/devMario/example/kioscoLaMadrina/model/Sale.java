@@ -8,15 +8,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_date_time_id", columnList = "dateTime, id"),
+        @Index(name = "idx_sales_user_date_time_id", columnList = "user_id, dateTime, id"),
+        @Index(name = "idx_sales_shift_id", columnList = "shift_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Sale {
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_seq")
+    @SequenceGenerator(name = "sale_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,10 +31,18 @@ public class Sale {
     @Column(nullable = false)
     private BigDecimal totalAmount;
 
+    // Ticket id assigned by an offline terminal; makes re-uploads of the same ticket detectable.
+    @Column(unique = true, length = 64)
+    private String clientReference;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
+    // The cashier's shift that was open when the sale was recorded, if any
+    @Column(name = "shift_id")
+    private Long shiftId;
+
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<SaleDetail> details = new ArrayList<>();
@@ -5,15 +5,20 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "sale_details")
+@Table(name = "sale_details", indexes = {
+        @Index(name = "idx_sale_details_sale", columnList = "sale_id"),
+        @Index(name = "idx_sale_details_product", columnList = "product_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class SaleDetail {
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_detail_seq")
+    @SequenceGenerator(name = "sale_detail_seq", sequenceName = "sale_details_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
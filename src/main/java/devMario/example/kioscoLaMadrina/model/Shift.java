@@ -0,0 +1,39 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A cashier's register shift. While it is open its totals live in memory (see ShiftLedger); they are written
+ * here when it closes, so the closing (Z) report can be read back without touching the sales.
+ */
+@Entity
+@Table(name = "shifts", indexes = @Index(name = "idx_shifts_closed_at", columnList = "closedAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Shift {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDateTime openedAt;
+
+    // Null while the shift is open
+    private LocalDateTime closedAt;
+
+    private Long ticketCount;
+
+    private BigDecimal revenue;
+
+    private Long unitsSold;
+}
@@ -0,0 +1,51 @@
+package devMario.example.kioscoLaMadrina.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Units and revenue per product for one closed shift.
+ */
+@Entity
+@Table(name = "shift_product_totals")
+@IdClass(ShiftProductTotal.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftProductTotal implements Persistable<ShiftProductTotal.Key> {
+    @Id
+    private Long shiftId;
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long unitsSold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Override
+    public Key getId() {
+        return new Key(shiftId, productId);
+    }
+
+    // Rows are written once, when the shift closes: save() can insert them (batched) without checking first.
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long shiftId;
+        private Long productId;
+    }
+}
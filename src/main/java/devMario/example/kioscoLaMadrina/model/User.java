@@ -30,4 +30,9 @@ public class User {
 
     @Builder.Default
     private boolean active = true;
+
+    // Bumped whenever the role or active flag changes; tokens carrying an older value are rejected.
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
 }
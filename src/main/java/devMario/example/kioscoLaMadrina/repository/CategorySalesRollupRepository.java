@@ -0,0 +1,41 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.dto.CategoryRevenueDTO;
+import devMario.example.kioscoLaMadrina.model.CategorySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CategorySalesRollupRepository extends JpaRepository<CategorySalesRollup, CategorySalesRollup.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO category_sales_daily (sale_date, category_id, units_sold, revenue) " +
+            "VALUES (:saleDate, :categoryId, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("saleDate") LocalDate saleDate, @Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query("UPDATE CategorySalesRollup r SET r.unitsSold = r.unitsSold + :units, r.revenue = r.revenue + :revenue " +
+            "WHERE r.saleDate = :saleDate AND r.categoryId = :categoryId")
+    int increment(@Param("saleDate") LocalDate saleDate, @Param("categoryId") Long categoryId,
+            @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    // Uncategorized sales (categoryId 0) find no category and come back with a null name.
+    @Query("SELECT new devMario.example.kioscoLaMadrina.dto.CategoryRevenueDTO(r.categoryId, c.name, " +
+            "SUM(r.unitsSold), SUM(r.revenue)) " +
+            "FROM CategorySalesRollup r LEFT JOIN Category c ON c.id = r.categoryId " +
+            "WHERE r.saleDate BETWEEN :from AND :to " +
+            "GROUP BY r.categoryId, c.name ORDER BY SUM(r.revenue) DESC, r.categoryId")
+    List<CategoryRevenueDTO> findRevenueByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // One-off rebuild from the sales history (using each product's current category), only while the table is empty.
+    @Modifying
+    @Query(value = "INSERT INTO category_sales_daily (sale_date, category_id, units_sold, revenue) " +
+            "SELECT CAST(s.date_time AS DATE), COALESCE(p.category_id, 0), SUM(d.quantity), SUM(d.subtotal) " +
+            "FROM sale_details d JOIN sales s ON s.id = d.sale_id JOIN products p ON p.id = d.product_id " +
+            "GROUP BY CAST(s.date_time AS DATE), COALESCE(p.category_id, 0)", nativeQuery = true)
+    int rebuildFromSales();
+}
@@ -0,0 +1,33 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.DailySalesSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailySalesSummaryRepository extends JpaRepository<DailySalesSummary, LocalDate> {
+
+    // Creates the day's row on first use; concurrent checkouts racing here are resolved by the primary key.
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_summary (sale_date, revenue, ticket_count, units_sold) " +
+            "VALUES (:saleDate, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("saleDate") LocalDate saleDate);
+
+    @Modifying
+    @Query("UPDATE DailySalesSummary d SET d.revenue = d.revenue + :revenue, " +
+            "d.ticketCount = d.ticketCount + :tickets, d.unitsSold = d.unitsSold + :units " +
+            "WHERE d.saleDate = :saleDate")
+    int increment(@Param("saleDate") LocalDate saleDate, @Param("revenue") BigDecimal revenue,
+            @Param("tickets") long tickets, @Param("units") long units);
+
+    // One-off rebuild from the sales history, used only when the summary table is still empty.
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_summary (sale_date, revenue, ticket_count, units_sold) " +
+            "SELECT CAST(s.date_time AS DATE), SUM(s.total_amount), COUNT(*), COALESCE(SUM(u.units), 0) " +
+            "FROM sales s LEFT JOIN (SELECT sale_id, SUM(quantity) AS units FROM sale_details GROUP BY sale_id) u " +
+            "ON u.sale_id = s.id GROUP BY CAST(s.date_time AS DATE)", nativeQuery = true)
+    int rebuildFromSales();
+}
@@ -0,0 +1,23 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest first; events that already failed maxAttempts times are left out.
+    @Query("SELECT e FROM OutboxEvent e WHERE e.attempts < :maxAttempts ORDER BY e.id")
+    List<OutboxEvent> findPending(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.attempts < :maxAttempts")
+    long countPending(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+}
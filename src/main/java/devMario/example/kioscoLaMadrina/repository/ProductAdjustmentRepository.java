@@ -0,0 +1,7 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.ProductAdjustment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductAdjustmentRepository extends JpaRepository<ProductAdjustment, Long> {
+}
@@ -1,11 +1,92 @@
 package devMario.example.kioscoLaMadrina.repository;
 
 import devMario.example.kioscoLaMadrina.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Bulk adjustment filter: optional category and exact barcode, plus a LIKE pattern on the name ("%" for any)
+    String MATCHES_FILTER = "(:categoryId IS NULL OR p.category.id = :categoryId) "
+            + "AND LOWER(p.name) LIKE :namePattern ESCAPE '!' AND (:barcode IS NULL OR p.barcode = :barcode)";
+
     Optional<Product> findByBarcode(String barcode);
 
+    // In id order, like findAllByIdForUpdate, so it cannot deadlock with a checkout
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.barcode IN :barcodes ORDER BY p.id")
+    List<Product> findByBarcodeInForUpdate(@Param("barcodes") Collection<String> barcodes);
+
     boolean existsByBarcode(String barcode);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Check and decrement in one statement: the row lock makes concurrent checkouts queue instead of overselling.
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = :version, " +
+            "p.revision = p.revision + 1 WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("version") long version);
+
+    // Category renames show up in the products' categoryName, so they count as a change to each of them.
+    @Modifying
+    @Query("UPDATE Product p SET p.version = :version, p.revision = p.revision + 1 WHERE p.category.id = :categoryId")
+    int touchCategory(@Param("categoryId") Long categoryId, @Param("version") long version);
+
+    // [id, revision] of the category's products, for the transaction that just touched (and locked) them
+    @Query("SELECT p.id, p.revision FROM Product p WHERE p.category.id = :categoryId")
+    List<Object[]> findRevisionsByCategory(@Param("categoryId") Long categoryId);
+
+    // [id, stockQuantity, revision] of products whose stock the current transaction just changed (and locked)
+    @Query("SELECT p.id, p.stockQuantity, p.revision FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + MATCHES_FILTER)
+    long countMatching(@Param("categoryId") Long categoryId, @Param("namePattern") String namePattern,
+            @Param("barcode") String barcode);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + MATCHES_FILTER
+            + " AND ROUND(p.price + p.price * :percent / 100 + :amount, 2) <= 0")
+    long countMatchingWithPriceAtOrBelowZero(@Param("categoryId") Long categoryId,
+            @Param("namePattern") String namePattern, @Param("barcode") String barcode,
+            @Param("percent") BigDecimal percent, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + MATCHES_FILTER + " AND p.stockQuantity + :delta < 0")
+    long countMatchingWithStockBelowZero(@Param("categoryId") Long categoryId,
+            @Param("namePattern") String namePattern, @Param("barcode") String barcode, @Param("delta") int delta);
+
+    // The guards repeat the checks above, so a row changed meanwhile is skipped rather than made invalid.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.price = ROUND(p.price + p.price * :percent / 100 + :amount, 2), p.version = :version, "
+            + "p.revision = p.revision + 1 WHERE " + MATCHES_FILTER
+            + " AND ROUND(p.price + p.price * :percent / 100 + :amount, 2) > 0")
+    int adjustPrices(@Param("categoryId") Long categoryId, @Param("namePattern") String namePattern,
+            @Param("barcode") String barcode, @Param("percent") BigDecimal percent, @Param("amount") BigDecimal amount,
+            @Param("version") long version);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, p.version = :version, "
+            + "p.revision = p.revision + 1 WHERE " + MATCHES_FILTER + " AND p.stockQuantity + :delta >= 0")
+    int adjustStock(@Param("categoryId") Long categoryId, @Param("namePattern") String namePattern,
+            @Param("barcode") String barcode, @Param("delta") int delta, @Param("version") long version);
+
+    // [id, price, stockQuantity, revision] of the products stamped with this version. Catalog versions are unique
+    // per transaction, so these are exactly the rows a bulk update just changed.
+    @Query("SELECT p.id, p.price, p.stockQuantity, p.revision FROM Product p WHERE p.version = :version")
+    List<Object[]> findAdjustedByVersion(@Param("version") long version);
+
+    @Query("SELECT COALESCE(MAX(p.version), 0) FROM Product p")
+    long findMaxVersion();
 }
@@ -0,0 +1,53 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.dto.HourlyRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import devMario.example.kioscoLaMadrina.model.ProductSalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, ProductSalesRollup.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_hourly (sale_date, sale_hour, product_id, units_sold, revenue) " +
+            "VALUES (:saleDate, :saleHour, :productId, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("saleDate") LocalDate saleDate, @Param("saleHour") int saleHour,
+            @Param("productId") Long productId);
+
+    @Modifying
+    @Query("UPDATE ProductSalesRollup r SET r.unitsSold = r.unitsSold + :units, r.revenue = r.revenue + :revenue " +
+            "WHERE r.saleDate = :saleDate AND r.saleHour = :saleHour AND r.productId = :productId")
+    int increment(@Param("saleDate") LocalDate saleDate, @Param("saleHour") int saleHour,
+            @Param("productId") Long productId, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Query("SELECT new devMario.example.kioscoLaMadrina.dto.TopProductDTO(p.id, p.name, SUM(r.unitsSold), SUM(r.revenue)) " +
+            "FROM ProductSalesRollup r JOIN Product p ON p.id = r.productId " +
+            "WHERE r.saleDate BETWEEN :from AND :to " +
+            "GROUP BY p.id, p.name ORDER BY SUM(r.unitsSold) DESC, p.id")
+    List<TopProductDTO> findTopProducts(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("SELECT new devMario.example.kioscoLaMadrina.dto.TopProductDTO(p.id, p.name, SUM(r.unitsSold), SUM(r.revenue)) " +
+            "FROM ProductSalesRollup r JOIN Product p ON p.id = r.productId " +
+            "GROUP BY p.id, p.name ORDER BY SUM(r.unitsSold) DESC, p.id")
+    List<TopProductDTO> findTopProducts(Pageable pageable);
+
+    @Query("SELECT new devMario.example.kioscoLaMadrina.dto.HourlyRevenueDTO(r.saleHour, SUM(r.unitsSold), SUM(r.revenue)) " +
+            "FROM ProductSalesRollup r WHERE r.saleDate BETWEEN :from AND :to " +
+            "GROUP BY r.saleHour ORDER BY r.saleHour")
+    List<HourlyRevenueDTO> findRevenueByHour(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // One-off rebuild from the sales history, used only when the rollup table is still empty.
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_hourly (sale_date, sale_hour, product_id, units_sold, revenue) " +
+            "SELECT CAST(s.date_time AS DATE), EXTRACT(HOUR FROM s.date_time), d.product_id, " +
+            "SUM(d.quantity), SUM(d.subtotal) " +
+            "FROM sale_details d JOIN sales s ON s.id = d.sale_id " +
+            "GROUP BY CAST(s.date_time AS DATE), EXTRACT(HOUR FROM s.date_time), d.product_id", nativeQuery = true)
+    int rebuildFromSales();
+}
@@ -0,0 +1,7 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+}
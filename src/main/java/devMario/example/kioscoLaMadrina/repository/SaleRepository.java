@@ -2,6 +2,21 @@ package devMario.example.kioscoLaMadrina.repository;
 
 import devMario.example.kioscoLaMadrina.model.Sale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 
-public interface SaleRepository extends JpaRepository<Sale, Long> {
+public interface SaleRepository extends JpaRepository<Sale, Long>, JpaSpecificationExecutor<Sale> {
+    List<Sale> findByClientReferenceIn(Collection<String> clientReferences);
+
+    // [shiftId, ticketCount, revenue]; only used on startup, to rebuild the totals of the shifts still open
+    @Query("SELECT s.shiftId, COUNT(s), SUM(s.totalAmount) FROM Sale s WHERE s.shiftId IN :shiftIds GROUP BY s.shiftId")
+    List<Object[]> sumByShift(@Param("shiftIds") Collection<Long> shiftIds);
+
+    // [shiftId, productId, unitsSold, revenue], as above
+    @Query("SELECT s.shiftId, d.product.id, SUM(d.quantity), SUM(d.subtotal) FROM SaleDetail d JOIN d.sale s " +
+            "WHERE s.shiftId IN :shiftIds GROUP BY s.shiftId, d.product.id")
+    List<Object[]> sumProductsByShift(@Param("shiftIds") Collection<Long> shiftIds);
 }
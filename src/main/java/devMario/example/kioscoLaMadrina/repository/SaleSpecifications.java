@@ -0,0 +1,62 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.Sale;
+import devMario.example.kioscoLaMadrina.model.SaleDetail;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public final class SaleSpecifications {
+
+    private SaleSpecifications() {
+    }
+
+    public static Specification<Sale> from(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("dateTime"), from);
+    }
+
+    public static Specification<Sale> to(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThan(root.get("dateTime"), to);
+    }
+
+    public static Specification<Sale> soldBy(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Sale> minTotal(BigDecimal minTotal) {
+        return (root, query, cb) -> minTotal == null ? null : cb.greaterThanOrEqualTo(root.get("totalAmount"), minTotal);
+    }
+
+    public static Specification<Sale> containsProduct(Long productId) {
+        return (root, query, cb) -> {
+            if (productId == null) {
+                return null;
+            }
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<SaleDetail> detail = sub.from(SaleDetail.class);
+            sub.select(detail.get("id"))
+                    .where(cb.equal(detail.get("sale"), root),
+                            cb.equal(detail.get("product").get("id"), productId));
+            return cb.exists(sub);
+        };
+    }
+
+    /**
+     * Keyset seek for the (dateTime DESC, id DESC) ordering: rows strictly after the cursor.
+     * The leading {@code dateTime <= ?} term gives the planner a range on the composite index.
+     */
+    public static Specification<Sale> before(LocalDateTime dateTime, Long id) {
+        return (root, query, cb) -> {
+            if (dateTime == null || id == null) {
+                return null;
+            }
+            return cb.and(
+                    cb.lessThanOrEqualTo(root.get("dateTime"), dateTime),
+                    cb.or(cb.lessThan(root.get("dateTime"), dateTime),
+                            cb.lessThan(root.get("id"), id)));
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.ShiftProductTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface ShiftProductTotalRepository extends JpaRepository<ShiftProductTotal, ShiftProductTotal.Key> {
+    List<ShiftProductTotal> findByShiftIdOrderByProductId(Long shiftId);
+}
@@ -0,0 +1,12 @@
+package devMario.example.kioscoLaMadrina.repository;
+
+import devMario.example.kioscoLaMadrina.model.Shift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+
+public interface ShiftRepository extends JpaRepository<Shift, Long> {
+
+    @Query("SELECT s FROM Shift s JOIN FETCH s.user WHERE s.closedAt IS NULL")
+    List<Shift> findOpen();
+}
@@ -2,10 +2,19 @@ package devMario.example.kioscoLaMadrina.repository;
 
 import devMario.example.kioscoLaMadrina.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    // [id, tokenVersion] pairs
+    @Query("SELECT u.id, u.tokenVersion FROM User u")
+    List<Object[]> findAllTokenVersions();
 }
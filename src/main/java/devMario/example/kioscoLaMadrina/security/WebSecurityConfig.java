@@ -2,6 +2,8 @@ package devMario.example.kioscoLaMadrina.security;
 
 import devMario.example.kioscoLaMadrina.security.jwt.AuthEntryPointJwt;
 import devMario.example.kioscoLaMadrina.security.jwt.AuthTokenFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +13,7 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,16 +32,22 @@ import java.util.List;
 public class WebSecurityConfig {
 
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
     private final AuthEntryPointJwt unauthorizedHandler;
     private final AuthTokenFilter authTokenFilter; // Making Filter managed by Spring properly
+    private final int bcryptStrength;
 
     // Inyección de dependencias por constructor
     public WebSecurityConfig(UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
             AuthEntryPointJwt unauthorizedHandler,
-            AuthTokenFilter authTokenFilter) {
+            AuthTokenFilter authTokenFilter,
+            @Value("${kiosco.app.bcryptStrength}") int bcryptStrength) {
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
         this.unauthorizedHandler = unauthorizedHandler;
         this.authTokenFilter = authTokenFilter;
+        this.bcryptStrength = bcryptStrength;
     }
 
     @Bean
@@ -47,6 +56,8 @@ public class WebSecurityConfig {
 
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehashes on sign-in when the stored hash is weaker than kiosco.app.bcryptStrength
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
 
         return authProvider;
     }
@@ -58,7 +69,7 @@ public class WebSecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -69,8 +80,12 @@ public class WebSecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Error dispatches carry no token; without this every 4xx/5xx came back as 401
+                        .requestMatchers("/error").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("ADMIN")
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
@@ -88,7 +103,8 @@ public class WebSecurityConfig {
         List<String> origins = Arrays.asList(allowedOrigins.split(","));
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "X-Requested-With"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "X-Requested-With",
+                "Idempotency-Key"));
 
         // If origins is *, we cannot allow credentials (security rule)
         if (origins.contains("*")) {
@@ -1,6 +1,11 @@
 package devMario.example.kioscoLaMadrina.security.jwt;
 
+import devMario.example.kioscoLaMadrina.security.services.AccountVersions;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
 import devMario.example.kioscoLaMadrina.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,23 +27,31 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final VerifiedTokenCache tokenCache;
+    private final AccountVersions accountVersions;
+    private final MeterRegistry meterRegistry;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
-    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService,
+            VerifiedTokenCache tokenCache, AccountVersions accountVersions, MeterRegistry meterRegistry) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.accountVersions = accountVersions;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "anonymous";
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = jwt != null ? authenticate(jwt) : null;
+            result = jwt == null ? "anonymous" : userDetails != null ? "authenticated" : "rejected";
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -46,12 +59,55 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
+            result = "error";
             logger.error("Cannot set user authentication: {}", e);
         }
+        // Only the authentication work; the rest of the chain is covered by http.server.requests
+        sample.stop(meterRegistry.timer("kiosco.auth.filter", "result", result));
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Returns the user behind a valid token. Repeated tokens are served from the cache, skipping both the
+     * signature check and the users table lookup; tokens with self-contained claims skip the lookup too.
+     * Either way the account version must still be current, so demoted or disabled users lose access.
+     */
+    private UserDetailsImpl authenticate(String jwt) {
+        UserDetailsImpl cached = tokenCache.get(jwt);
+        if (cached != null) {
+            if (accountVersions.isCurrent(cached)) {
+                return cached;
+            }
+            tokenCache.invalidate(jwt);
+        }
+
+        Claims claims = jwtUtils.parseVerifiedClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+        UserDetailsImpl principal = jwtUtils.principalFromClaims(claims);
+        if (principal != null && accountVersions.current(principal.getId()) != null) {
+            if (!accountVersions.isCurrent(principal)) {
+                logger.warn("Rejected token with outdated account version for user: {}", principal.getUsername());
+                jwtUtils.countInvalid("revoked");
+                return null;
+            }
+        } else {
+            // Token without self-contained claims, or an account this instance has not seen yet
+            UserDetailsImpl loaded = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+            if (!loaded.isEnabled()
+                    || (principal != null && principal.getTokenVersion() != loaded.getTokenVersion())) {
+                jwtUtils.countInvalid("revoked");
+                return null;
+            }
+            accountVersions.observe(loaded);
+            principal = loaded;
+        }
+        tokenCache.put(jwt, principal, claims.getExpiration());
+        return principal;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,11 +1,16 @@
 package devMario.example.kioscoLaMadrina.security.jwt;
 
+import devMario.example.kioscoLaMadrina.model.Role;
 import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -17,46 +22,96 @@ import java.util.Date;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_VERSION = "ver";
+
     @Value("${kiosco.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${kiosco.app.jwtExpirationMs}")
     private long jwtExpirationMs;
 
+    // When set, tokens carry user id, role and account version so requests need no users table lookup
+    @Value("${kiosco.app.jwtSelfContainedClaims}")
+    private boolean selfContainedClaims;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Built once: decoding the secret and assembling a parser on every request is measurable overhead.
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+        if (selfContainedClaims) {
+            builder.claim(CLAIM_USER_ID, userPrincipal.getId())
+                    .claim(CLAIM_ROLE, userPrincipal.getAuthorities().iterator().next().getAuthority())
+                    .claim(CLAIM_VERSION, userPrincipal.getTokenVersion());
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Builds the principal from self-contained claims, or returns null if the token does not carry them.
+     */
+    public UserDetailsImpl principalFromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        if (userId == null || role == null || version == null) {
+            return null;
+        }
+        return UserDetailsImpl.fromClaims(userId, claims.getSubject(), Role.valueOf(role), version);
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseVerifiedClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies signature and expiry in a single parse and returns the claims, or null if the token is not valid.
+     */
+    public Claims parseVerifiedClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            countInvalid("signature");
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            countInvalid("malformed");
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            countInvalid("expired");
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            countInvalid("unsupported");
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            countInvalid("empty");
         }
 
-        return false;
+        return null;
+    }
+
+    public void countInvalid(String reason) {
+        meterRegistry.counter("kiosco.auth.invalid_tokens", "reason", reason).increment();
     }
 }
@@ -0,0 +1,76 @@
+package devMario.example.kioscoLaMadrina.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens that already passed signature verification, mapped to the user they authenticate. Bounded in size;
+ * an entry lives for the configured TTL or until the token itself expires, whichever comes first.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private record Entry(UserDetailsImpl principal, long expiresAtNanos) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final long ttlNanos;
+
+    public VerifiedTokenCache(@Value("${kiosco.app.tokenCacheTtlMs}") long ttlMs,
+            @Value("${kiosco.app.tokenCacheMaxSize}") long maxSize) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String token, Entry entry, long currentTime) {
+                        return Math.max(0, entry.expiresAtNanos() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public UserDetailsImpl get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        return entry != null ? entry.principal() : null;
+    }
+
+    public void put(String token, UserDetailsImpl principal, Date tokenExpiration) {
+        long now = System.nanoTime();
+        long expiresAt = now + ttlNanos;
+        if (tokenExpiration != null) {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(tokenExpiration.getTime() - System.currentTimeMillis());
+            expiresAt = now + Math.min(ttlNanos, remaining);
+        }
+        cache.put(token, new Entry(principal, expiresAt));
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,55 @@
+package devMario.example.kioscoLaMadrina.security.services;
+
+import devMario.example.kioscoLaMadrina.event.AccountChangedEvent;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version of every account, kept in memory so that validating the version claim of a
+ * self-contained token costs a map lookup instead of a users table query.
+ */
+@Component
+public class AccountVersions implements SmartInitializingSingleton {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object[] row : userRepository.findAllTokenVersions()) {
+            versions.put((Long) row[0], (Integer) row[1]);
+        }
+    }
+
+    /**
+     * Returns the account's current version, or null if the account is unknown here.
+     */
+    public Integer current(Long userId) {
+        return versions.get(userId);
+    }
+
+    public boolean isCurrent(UserDetailsImpl principal) {
+        return Integer.valueOf(principal.getTokenVersion()).equals(versions.get(principal.getId()));
+    }
+
+    /**
+     * Records the version of an account just read from the database, unless a newer event got here first.
+     */
+    public void observe(UserDetailsImpl loaded) {
+        versions.putIfAbsent(loaded.getId(), loaded.getTokenVersion());
+    }
+
+    // Sign-up runs outside a transaction, hence the fallback.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        versions.put(event.userId(), event.tokenVersion());
+    }
+}
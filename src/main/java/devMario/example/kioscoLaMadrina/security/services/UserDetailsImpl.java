@@ -1,5 +1,6 @@
 package devMario.example.kioscoLaMadrina.security.services;
 
+import devMario.example.kioscoLaMadrina.model.Role;
 import devMario.example.kioscoLaMadrina.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
@@ -28,13 +29,20 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    @Getter
+    private int tokenVersion;
+
+    private boolean enabled;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
-            Collection<? extends GrantedAuthority> authorities) {
+            Collection<? extends GrantedAuthority> authorities, int tokenVersion, boolean enabled) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
+        this.enabled = enabled;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -46,7 +54,18 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion(),
+                user.isActive());
+    }
+
+    /**
+     * Principal rebuilt from self-contained token claims, without a users table lookup. Only active
+     * accounts receive tokens, and deactivation bumps the version, so a current token implies enabled.
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username, Role role, int tokenVersion) {
+        return new UserDetailsImpl(id, username, null, null,
+                Collections.singletonList(new SimpleGrantedAuthority(role.name())), tokenVersion, true);
     }
 
     @Override
@@ -81,7 +100,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 
     @Override
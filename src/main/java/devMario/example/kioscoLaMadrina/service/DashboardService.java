@@ -0,0 +1,11 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.DashboardSummaryDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import java.util.List;
+
+public interface DashboardService {
+    DashboardSummaryDTO getSummary();
+
+    List<TopProductDTO> getTopProducts(int limit);
+}
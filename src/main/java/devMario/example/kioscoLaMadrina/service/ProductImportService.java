@@ -0,0 +1,10 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.ImportFormat;
+import devMario.example.kioscoLaMadrina.dto.ProductImportResultDTO;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResultDTO importProducts(ImportFormat format, InputStream in) throws IOException;
+}
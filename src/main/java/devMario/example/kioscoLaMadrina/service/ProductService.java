@@ -1,16 +1,36 @@
 package devMario.example.kioscoLaMadrina.service;
 
+import devMario.example.kioscoLaMadrina.dto.BarcodeIndexStatsDTO;
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentResultDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductChangesDTO;
 import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductPageDTO;
 import java.util.List;
 
 public interface ProductService {
     List<ProductDTO> findAll();
 
+    long getCatalogVersion();
+
+    ProductChangesDTO findChangesSince(long since);
+
     ProductDTO findById(Long id);
 
+    ProductPageDTO search(String query, Long categoryId, Boolean active, int page, int size);
+
+    ProductDTO findByBarcode(String barcode);
+
+    BarcodeIndexStatsDTO getBarcodeIndexStats();
+
+    List<LowStockProductDTO> getLowStock();
+
     ProductDTO create(ProductDTO productDTO);
 
     ProductDTO update(Long id, ProductDTO productDTO);
 
     void delete(Long id);
+
+    ProductAdjustmentResultDTO adjust(ProductAdjustmentRequestDTO request, boolean dryRun, String username);
 }
@@ -0,0 +1,15 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.CategoryRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.HourlyRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportService {
+    List<TopProductDTO> getTopProducts(LocalDate from, LocalDate to, int limit);
+
+    List<CategoryRevenueDTO> getRevenueByCategory(LocalDate from, LocalDate to);
+
+    List<HourlyRevenueDTO> getRevenueByHour(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,16 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import java.util.List;
+
+/**
+ * Work that follows a sale but does not belong in the checkout transaction (reporting, alerts, receipts...).
+ * Committed sales reach every implementation through the outbox, in batches and in the order they were
+ * recorded.
+ * <p>
+ * Delivery is at least once. Each batch runs in a transaction that also removes it from the outbox, so
+ * database writes made here are applied exactly once. Anything else may see a sale again after a failure.
+ */
+public interface SaleCompletedConsumer {
+    void onSalesCompleted(List<SaleCompletedEvent> sales);
+}
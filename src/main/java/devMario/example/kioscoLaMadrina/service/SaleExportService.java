@@ -0,0 +1,12 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.ExportFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface SaleExportService {
+    void exportSales(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+
+    void exportSaleDetails(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+}
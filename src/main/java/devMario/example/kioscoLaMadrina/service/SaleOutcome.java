@@ -0,0 +1,26 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+
+/**
+ * Result of one submission within a group: the recorded sale, the sale previously recorded under
+ * the same client reference ({@code replayed}), or the reason it was rejected.
+ */
+public record SaleOutcome(SaleResponseDTO sale, RuntimeException error, boolean replayed) {
+
+    public static SaleOutcome success(SaleResponseDTO sale) {
+        return new SaleOutcome(sale, null, false);
+    }
+
+    public static SaleOutcome replay(SaleResponseDTO sale) {
+        return new SaleOutcome(sale, null, true);
+    }
+
+    public static SaleOutcome failure(RuntimeException error) {
+        return new SaleOutcome(null, error, false);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
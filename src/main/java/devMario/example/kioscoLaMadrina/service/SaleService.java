@@ -1,11 +1,23 @@
 package devMario.example.kioscoLaMadrina.service;
 
+import devMario.example.kioscoLaMadrina.dto.SaleBatchRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchResultDTO;
+import devMario.example.kioscoLaMadrina.dto.SalePageDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleSearchCriteria;
 import java.util.List;
 
 public interface SaleService {
     SaleResponseDTO createSale(SaleRequestDTO request, String username);
 
-    List<SaleResponseDTO> findAll();
+    /**
+     * Records several sales in one transaction. Stock is checked ticket by ticket in list order,
+     * so a rejected ticket does not affect the others; outcomes come back in the same order.
+     */
+    List<SaleOutcome> createSales(List<SaleSubmission> submissions);
+
+    SaleBatchResultDTO importOfflineSales(SaleBatchRequestDTO batch, String username);
+
+    SalePageDTO findPage(SaleSearchCriteria criteria, String cursor, int limit);
 }
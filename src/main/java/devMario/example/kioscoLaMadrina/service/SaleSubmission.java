@@ -0,0 +1,16 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import java.time.LocalDateTime;
+
+/**
+ * A sale waiting to be recorded together with others in a single transaction.
+ * Offline terminals also send their own ticket id ({@code clientReference}) and the time of the sale;
+ * both are null for live checkouts.
+ */
+public record SaleSubmission(SaleRequestDTO request, String username, String clientReference, LocalDateTime dateTime) {
+
+    public SaleSubmission(SaleRequestDTO request, String username) {
+        this(request, username, null, null);
+    }
+}
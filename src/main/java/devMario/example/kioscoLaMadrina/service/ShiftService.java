@@ -0,0 +1,13 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.ShiftReportDTO;
+
+public interface ShiftService {
+    ShiftReportDTO open(String username);
+
+    ShiftReportDTO getCurrent(String username);
+
+    ShiftReportDTO close(String username);
+
+    ShiftReportDTO findById(Long id);
+}
@@ -0,0 +1,11 @@
+package devMario.example.kioscoLaMadrina.service;
+
+import devMario.example.kioscoLaMadrina.dto.UserDTO;
+import devMario.example.kioscoLaMadrina.dto.UserUpdateDTO;
+import java.util.List;
+
+public interface UserService {
+    List<UserDTO> findAll();
+
+    UserDTO update(Long id, UserUpdateDTO update);
+}
@@ -0,0 +1,110 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.event.CatalogChangedEvent;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The product list as ready-to-send JSON, plain and gzip-compressed, so listing the catalog costs no mapping or
+ * serialization per request. Any catalog change (including stock moved by sales) marks the bytes stale; the
+ * next request rebuilds them once and every request after that reuses them.
+ */
+@Component
+public class CatalogSnapshot {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Bumped by every catalog change; a snapshot built from an older generation is stale
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private Timer rebuilds;
+
+    /**
+     * @param version catalog version the content is at least as new as, for the ETag
+     */
+    public record Snapshot(long version, long generation, byte[] json, byte[] gzip) {
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        rebuilds = Timer.builder("kiosco.catalog.snapshot.rebuild")
+                .description("Time to serialize and compress the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("kiosco.catalog.snapshot.bytes", this, cache -> cache.size(false))
+                .tag("encoding", "identity")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("kiosco.catalog.snapshot.bytes", this, cache -> cache.size(true))
+                .tag("encoding", "gzip")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation() == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long expected = generation.get();
+            if (current != null && current.generation() == expected) {
+                return current;
+            }
+            // Generation and version are read before the catalog: a change landing meanwhile leaves the
+            // snapshot stale (rebuilt on the next request) rather than newer than its ETag claims.
+            long version = catalogVersions.stable();
+            current = rebuilds.record(() -> build(version, expected));
+            snapshot = current;
+            return current;
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private Snapshot build(long version, long generation) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(productService.findAll());
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new Snapshot(version, generation, json, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize the catalog snapshot", e);
+        }
+    }
+
+    private double size(boolean gzip) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return 0;
+        }
+        return gzip ? current.gzip().length : current.json().length;
+    }
+}
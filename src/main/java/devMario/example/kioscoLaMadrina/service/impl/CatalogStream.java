@@ -0,0 +1,107 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.StockLevelDTO;
+import devMario.example.kioscoLaMadrina.event.CatalogChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Server-Sent Events feed that keeps POS terminals' local catalogs current. A terminal first receives the
+ * whole catalog ({@code snapshot}), then, as changes commit:
+ * <ul>
+ *     <li>{@code stock}: {@code [{"id":..,"stock":..}]} for products whose stock moved;</li>
+ *     <li>{@code product}: the full product after any other change (price, name, category...);</li>
+ *     <li>{@code removed}: ids of deleted products.</li>
+ * </ul>
+ * Repeated changes to a product collapse into one message with its current state. A terminal whose oldest
+ * pending change waits longer than {@code kiosco.app.catalogStreamMaxLagMs} is disconnected; it reconnects and
+ * starts from a fresh snapshot.
+ */
+@Component
+public class CatalogStream extends SseBroadcaster<Long, Boolean> {
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter lagging;
+
+    public CatalogStream(@Value("${kiosco.app.catalogStreamTimeoutMs}") long streamTimeoutMs,
+                         @Value("${kiosco.app.catalogStreamHeartbeatMs}") long heartbeatMs,
+                         @Value("${kiosco.app.catalogStreamMaxLagMs}") long maxLagMs) {
+        super("catalog-stream", streamTimeoutMs, heartbeatMs, maxLagMs);
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("kiosco.catalog.stream.subscribers", this, CatalogStream::subscriberCount)
+                .register(meterRegistry);
+        lagging = meterRegistry.counter("kiosco.catalog.stream.disconnected", "reason", "lagging");
+    }
+
+    // The pending value is true while every change to the product only moved its stock
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        publish(event.productIds(), event.stockOnly());
+    }
+
+    @Override
+    protected Object snapshot() {
+        return List.copyOf(productIndex.all());
+    }
+
+    @Override
+    protected Boolean merge(Boolean pending, Boolean change) {
+        return pending && change;
+    }
+
+    @Override
+    protected void onLagging() {
+        lagging.increment();
+    }
+
+    @Override
+    protected List<SseEventBuilder> encode(Map<Long, Boolean> changes) {
+        List<StockLevelDTO> stock = new ArrayList<>();
+        List<ProductDTO> products = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        changes.forEach((productId, stockOnly) -> {
+            Optional<ProductDTO> product = productIndex.findById(productId);
+            if (product.isEmpty()) {
+                removed.add(productId);
+            } else if (stockOnly) {
+                stock.add(new StockLevelDTO(productId, product.get().stockQuantity()));
+            } else {
+                products.add(product.get());
+            }
+        });
+
+        List<SseEventBuilder> events = new ArrayList<>();
+        if (!stock.isEmpty()) {
+            events.add(SseEmitter.event().name("stock").data(stock));
+        }
+        for (ProductDTO product : products) {
+            events.add(SseEmitter.event().name("product").data(product));
+        }
+        if (!removed.isEmpty()) {
+            events.add(SseEmitter.event().name("removed").data(removed));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,112 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Hands out catalog versions: every transaction that changes products stamps them with one number, higher than
+ * any handed out before. Numbers are allocated in memory (this application runs as a single instance, like its
+ * other in-memory indexes) from blocks reserved with a database sequence, so none is handed out twice, not even
+ * after a restart: a row may keep an older version than one already handed out (a transaction that allocated
+ * first can commit last), so the highest stored version is not a safe place to resume from.
+ * <p>
+ * Versions are allocated before commit but become visible at commit, so a lower version can appear after a
+ * higher one. {@link #stable()} therefore only reports versions below every transaction still running: a
+ * client that resumes from it cannot skip a change that commits later.
+ */
+@Component
+public class CatalogVersions implements InitializingBean {
+    private static final String SEQUENCE = "catalog_versions_seq";
+    // Versions reserved per sequence call; the sequence value is the top of the block
+    private static final int BLOCK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+    private long last;
+    private long reserved;
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    public CatalogVersions(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    // No entity uses the sequence, so Hibernate does not create it.
+    @Override
+    public void afterPropertiesSet() {
+        Long exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.sequences WHERE sequence_name = ?", Long.class, SEQUENCE);
+        if (exists == 0) {
+            jdbcTemplate.execute(dialect.getSequenceSupport().getCreateSequenceString(SEQUENCE, BLOCK_SIZE, BLOCK_SIZE));
+        }
+    }
+
+    /**
+     * The version for the current transaction's catalog changes; the same number for every call within one
+     * transaction. Must be called inside a transaction.
+     */
+    public long current() {
+        Long bound = (Long) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Catalog versions are only allocated inside a transaction");
+        }
+
+        long version = allocate();
+        TransactionSynchronizationManager.bindResource(this, version);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // After every other synchronization, in particular the after-commit listener that applies the
+            // change to ProductIndex: the version must not become stable before the change can be read.
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersions.this);
+                release(version);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * Highest version such that every change up to it is committed (or rolled back) and applied.
+     */
+    public synchronized long stable() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    synchronized void advanceTo(long version) {
+        last = Math.max(last, version);
+    }
+
+    // The sequence is read on the caller's transaction connection and is not rolled back with it.
+    private synchronized long allocate() {
+        while (last >= reserved) {
+            Long top = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE), Long.class);
+            reserved = top;
+            last = Math.max(last, top - BLOCK_SIZE);
+        }
+        inFlight.add(++last);
+        return last;
+    }
+
+    private synchronized void release(long version) {
+        inFlight.remove(version);
+    }
+}
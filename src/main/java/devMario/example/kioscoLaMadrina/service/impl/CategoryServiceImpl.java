@@ -1,14 +1,19 @@
 package devMario.example.kioscoLaMadrina.service.impl;
 
 import devMario.example.kioscoLaMadrina.dto.CategoryDTO;
+import devMario.example.kioscoLaMadrina.event.CategoryChangedEvent;
 import devMario.example.kioscoLaMadrina.model.Category;
 import devMario.example.kioscoLaMadrina.repository.CategoryRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
 import devMario.example.kioscoLaMadrina.service.CategoryService;
 import devMario.example.kioscoLaMadrina.mapper.CategoryMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,6 +23,12 @@ public class CategoryServiceImpl implements CategoryService {
     CategoryRepository categoryRepository;
     @Autowired
     CategoryMapper categoryMapper;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    CatalogVersions catalogVersions;
 
     @Override
     public List<CategoryDTO> findAll() {
@@ -27,7 +38,10 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public CategoryDTO create(CategoryDTO dto) {
         Category cat = categoryMapper.toEntity(dto);
-        return categoryMapper.toDTO(categoryRepository.save(cat));
+        CategoryDTO created = categoryMapper.toDTO(categoryRepository.save(cat));
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(created.id(), created.name(), created.reorderThreshold(),
+                catalogVersions.current(), Map.of()));
+        return created;
     }
 
     @Override
@@ -36,11 +50,29 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         category.setName(dto.name());
         category.setDescription(dto.description());
-        return categoryMapper.toDTO(categoryRepository.save(category));
+        category.setReorderThreshold(dto.reorderThreshold());
+        CategoryDTO updated = categoryMapper.toDTO(categoryRepository.save(category));
+        long version = catalogVersions.current();
+        productRepository.touchCategory(id, version);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(id, updated.name(), updated.reorderThreshold(), version,
+                productRevisions(id)));
+        return updated;
     }
 
     @Override
     public void delete(Long id) {
+        long version = catalogVersions.current();
+        productRepository.touchCategory(id, version);
+        Map<Long, Long> productRevisions = productRevisions(id);
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(id, version, productRevisions));
+    }
+
+    private Map<Long, Long> productRevisions(Long categoryId) {
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Object[] row : productRepository.findRevisionsByCategory(categoryId)) {
+            revisions.put((Long) row[0], (Long) row[1]);
+        }
+        return revisions;
     }
 }
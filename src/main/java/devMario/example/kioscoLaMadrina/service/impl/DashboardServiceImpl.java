@@ -0,0 +1,183 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.DashboardSummaryDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import devMario.example.kioscoLaMadrina.model.CategorySalesRollup;
+import devMario.example.kioscoLaMadrina.model.DailySalesSummary;
+import devMario.example.kioscoLaMadrina.model.ProductSalesRollup;
+import devMario.example.kioscoLaMadrina.repository.CategorySalesRollupRepository;
+import devMario.example.kioscoLaMadrina.repository.DailySalesSummaryRepository;
+import devMario.example.kioscoLaMadrina.repository.OutboxEventRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductSalesRollupRepository;
+import devMario.example.kioscoLaMadrina.service.DashboardService;
+import devMario.example.kioscoLaMadrina.service.SaleCompletedConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Transactional
+public class DashboardServiceImpl implements DashboardService, SaleCompletedConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardServiceImpl.class);
+    private static final Comparator<ProductSalesRollup.Key> PRODUCT_KEY_ORDER = Comparator
+            .comparing(ProductSalesRollup.Key::getSaleDate)
+            .thenComparing(ProductSalesRollup.Key::getSaleHour)
+            .thenComparing(ProductSalesRollup.Key::getProductId);
+    private static final Comparator<CategorySalesRollup.Key> CATEGORY_KEY_ORDER = Comparator
+            .comparing(CategorySalesRollup.Key::getSaleDate)
+            .thenComparing(CategorySalesRollup.Key::getCategoryId);
+
+    @Autowired
+    private DailySalesSummaryRepository summaryRepository;
+
+    @Autowired
+    private ProductSalesRollupRepository productRollupRepository;
+
+    @Autowired
+    private CategorySalesRollupRepository categoryRollupRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+    @Value("${kiosco.app.outboxMaxAttempts}")
+    private int outboxMaxAttempts;
+
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardSummaryDTO getSummary() {
+        LocalDate today = LocalDate.now();
+        DailySalesSummary summary = summaryRepository.findById(today)
+                .orElseGet(() -> new DailySalesSummary(today, BigDecimal.ZERO, 0L, 0L));
+        long lowStockCount = lowStockTracker.lowStockCount();
+
+        return new DashboardSummaryDTO(
+                summary.getSaleDate(),
+                summary.getRevenue(),
+                summary.getTicketCount(),
+                summary.getUnitsSold(),
+                lowStockCount);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TopProductDTO> getTopProducts(int limit) {
+        return productRollupRepository.findTopProducts(PageRequest.of(0, Math.max(1, Math.min(limit, 50))));
+    }
+
+    // Summaries and rollups are updated from the outbox, in the same transaction that consumes the sales.
+    @Override
+    public void onSalesCompleted(List<SaleCompletedEvent> sales) {
+        Map<LocalDate, BigDecimal> revenue = new TreeMap<>();
+        Map<LocalDate, Long> tickets = new HashMap<>();
+        Map<LocalDate, Long> units = new HashMap<>();
+        for (SaleCompletedEvent sale : sales) {
+            LocalDate saleDate = sale.dateTime().toLocalDate();
+            revenue.merge(saleDate, sale.totalAmount(), BigDecimal::add);
+            tickets.merge(saleDate, 1L, Long::sum);
+            units.merge(saleDate, sale.lines().stream().mapToLong(SaleCompletedEvent.Line::quantity).sum(), Long::sum);
+        }
+
+        for (Map.Entry<LocalDate, BigDecimal> day : revenue.entrySet()) {
+            LocalDate saleDate = day.getKey();
+            summaryRepository.insertIfAbsent(saleDate);
+            summaryRepository.increment(saleDate, day.getValue(), tickets.get(saleDate), units.get(saleDate));
+        }
+
+        recordRollups(sales);
+    }
+
+    // Sorted keys: concurrent writers lock rollup rows in the same order, as checkouts do with product rows.
+    private void recordRollups(List<SaleCompletedEvent> sales) {
+        Map<ProductSalesRollup.Key, ProductSalesRollup> byProduct = new TreeMap<>(PRODUCT_KEY_ORDER);
+        Map<CategorySalesRollup.Key, CategorySalesRollup> byCategory = new TreeMap<>(CATEGORY_KEY_ORDER);
+        for (SaleCompletedEvent sale : sales) {
+            LocalDate saleDate = sale.dateTime().toLocalDate();
+            int saleHour = sale.dateTime().getHour();
+            for (SaleCompletedEvent.Line line : sale.lines()) {
+                long categoryId = line.categoryId() != null ? line.categoryId() : CategorySalesRollup.UNCATEGORIZED;
+                add(byProduct.computeIfAbsent(new ProductSalesRollup.Key(saleDate, saleHour, line.productId()),
+                        key -> new ProductSalesRollup(saleDate, saleHour, key.getProductId(), 0L, BigDecimal.ZERO)),
+                        line);
+                add(byCategory.computeIfAbsent(new CategorySalesRollup.Key(saleDate, categoryId),
+                        key -> new CategorySalesRollup(saleDate, categoryId, 0L, BigDecimal.ZERO)), line);
+            }
+        }
+
+        // The row usually exists already, so try the update first and create the row only when it touched nothing.
+        for (ProductSalesRollup delta : byProduct.values()) {
+            if (productRollupRepository.increment(delta.getSaleDate(), delta.getSaleHour(), delta.getProductId(),
+                    delta.getUnitsSold(), delta.getRevenue()) == 0) {
+                productRollupRepository.insertIfAbsent(delta.getSaleDate(), delta.getSaleHour(), delta.getProductId());
+                productRollupRepository.increment(delta.getSaleDate(), delta.getSaleHour(), delta.getProductId(),
+                        delta.getUnitsSold(), delta.getRevenue());
+            }
+        }
+        for (CategorySalesRollup delta : byCategory.values()) {
+            if (categoryRollupRepository.increment(delta.getSaleDate(), delta.getCategoryId(),
+                    delta.getUnitsSold(), delta.getRevenue()) == 0) {
+                categoryRollupRepository.insertIfAbsent(delta.getSaleDate(), delta.getCategoryId());
+                categoryRollupRepository.increment(delta.getSaleDate(), delta.getCategoryId(),
+                        delta.getUnitsSold(), delta.getRevenue());
+            }
+        }
+    }
+
+    private static void add(ProductSalesRollup rollup, SaleCompletedEvent.Line line) {
+        rollup.setUnitsSold(rollup.getUnitsSold() + line.quantity());
+        rollup.setRevenue(rollup.getRevenue().add(line.subtotal()));
+    }
+
+    private static void add(CategorySalesRollup rollup, SaleCompletedEvent.Line line) {
+        rollup.setUnitsSold(rollup.getUnitsSold() + line.quantity());
+        rollup.setRevenue(rollup.getRevenue().add(line.subtotal()));
+    }
+
+    // Before the outbox dispatcher starts. Sales still waiting in the outbox would be counted twice (by the
+    // rebuild and again on delivery), so the rebuild waits for a start with no events pending. Events set aside
+    // after too many failures are never delivered, so they do not hold it back.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillIfEmpty() {
+        if (outboxRepository.countPending(outboxMaxAttempts) > 0) {
+            return;
+        }
+        if (summaryRepository.count() == 0) {
+            int days = summaryRepository.rebuildFromSales();
+            if (days > 0) {
+                logger.info("Daily sales summary rebuilt from history: {} days", days);
+            }
+        }
+        if (productRollupRepository.count() == 0) {
+            int rows = productRollupRepository.rebuildFromSales();
+            if (rows > 0) {
+                logger.info("Hourly product sales rebuilt from history: {} rows", rows);
+            }
+        }
+        if (categoryRollupRepository.count() == 0) {
+            int rows = categoryRollupRepository.rebuildFromSales();
+            if (rows > 0) {
+                logger.info("Daily category sales rebuilt from history: {} rows", rows);
+            }
+        }
+    }
+}
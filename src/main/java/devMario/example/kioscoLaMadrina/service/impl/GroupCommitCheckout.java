@@ -0,0 +1,188 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.exception.CheckoutOutcomeUnknownException;
+import devMario.example.kioscoLaMadrina.service.SaleOutcome;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.SaleSubmission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group-commit checkout ({@code kiosco.app.checkoutMode=group}). Request threads enqueue their sale and wait;
+ * a single writer thread takes whatever has queued up (up to the group size, lingering a few milliseconds
+ * for more) and records it with {@link SaleService#createSales} in one transaction on one connection.
+ * <p>
+ * A caller that gives up while its sale is still queued withdraws it (503, never recorded). Once the writer has
+ * taken the sale the caller can no longer withdraw it and gets {@link CheckoutOutcomeUnknownException} instead.
+ */
+@Component
+@ConditionalOnProperty(name = "kiosco.app.checkoutMode", havingValue = "group")
+public class GroupCommitCheckout {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitCheckout.class);
+
+    // How often an idle writer checks whether the application is shutting down
+    private static final long IDLE_POLL_MS = 100;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Value("${kiosco.app.checkoutGroupMaxSize}")
+    private int maxGroupSize;
+
+    @Value("${kiosco.app.checkoutGroupMaxWaitMs}")
+    private long maxWaitMs;
+
+    @Value("${kiosco.app.checkoutQueueCapacity}")
+    private int queueCapacity;
+
+    @Value("${kiosco.app.checkoutTimeoutMs}")
+    private long timeoutMs;
+
+    private BlockingQueue<PendingSale> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private record PendingSale(SaleSubmission submission, CompletableFuture<SaleResponseDTO> result,
+            AtomicBoolean claimed) {
+
+        // Either the writer takes the sale or its caller withdraws it, never both.
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = Thread.ofPlatform().name("sale-group-commit").daemon().start(this::run);
+    }
+
+    // The writer finishes the group in progress and records what is queued; it is not interrupted, which could
+    // cut off a transaction half way.
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public SaleResponseDTO submit(SaleRequestDTO request, String username) {
+        PendingSale pending = new PendingSale(new SaleSubmission(request, username), new CompletableFuture<>(),
+                new AtomicBoolean());
+        if (!running || !queue.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Checkout queue is full, try again");
+        }
+
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(pending, "Checkout timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(pending, "Checkout interrupted");
+        }
+    }
+
+    private RuntimeException abandon(PendingSale pending, String reason) {
+        if (pending.claim()) {
+            // Still queued: the writer will skip it, so the sale is never recorded
+            pending.result().cancel(false);
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        }
+        return new CheckoutOutcomeUnknownException(pending.result());
+    }
+
+    private void run() {
+        List<PendingSale> group = new ArrayList<>(maxGroupSize);
+        while (running) {
+            try {
+                PendingSale first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (group.size() < maxGroupSize) {
+                    long waitNanos = deadline - System.nanoTime();
+                    PendingSale next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            claimAndCommit(group);
+            group.clear();
+        }
+
+        // Shutting down: record what is already queued instead of dropping it.
+        while (queue.drainTo(group, maxGroupSize) > 0) {
+            claimAndCommit(group);
+            group.clear();
+        }
+    }
+
+    private void claimAndCommit(List<PendingSale> group) {
+        // Skip sales whose callers gave up while they were queued
+        group.removeIf(pending -> !pending.claim());
+        commit(group);
+    }
+
+    private void commit(List<PendingSale> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        List<SaleOutcome> outcomes;
+        try {
+            outcomes = saleService.createSales(group.stream().map(PendingSale::submission).toList());
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // The whole group rolled back; retry each ticket alone so one bad ticket cannot fail the rest.
+            logger.warn("Group of {} sales rolled back, retrying individually: {}", group.size(), e.getMessage());
+            for (PendingSale pending : group) {
+                commit(List.of(pending));
+            }
+            return;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            SaleOutcome outcome = outcomes.get(i);
+            if (outcome.isSuccess()) {
+                group.get(i).result().complete(outcome.sale());
+            } else {
+                group.get(i).result().completeExceptionally(outcome.error());
+            }
+        }
+    }
+}
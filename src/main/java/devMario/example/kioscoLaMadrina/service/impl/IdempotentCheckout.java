@@ -0,0 +1,114 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.exception.CheckoutOutcomeUnknownException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes sale submissions carrying an {@code Idempotency-Key} safe to retry. The first request with a key runs
+ * the checkout; its result is kept (bounded in size, for the configured TTL) and replayed to any repeat of the
+ * key without touching the database. A repeat that arrives while the first is still running waits for it
+ * instead of checking out a second time.
+ * <p>
+ * Keys belong to the cashier who sent them, and reusing a key for a different sale is rejected with 422.
+ * A checkout that fails is forgotten (requests waiting on it get the same error), so the terminal can retry it.
+ * One whose outcome is unknown (the caller stopped waiting while the sale was being recorded) is kept, and
+ * repeats wait for that same sale instead.
+ */
+@Component
+public class IdempotentCheckout {
+
+    private record Key(String username, String idempotencyKey) {
+    }
+
+    private record Attempt(SaleRequestDTO request, CompletableFuture<SaleResponseDTO> result) {
+    }
+
+    private final Cache<Key, Attempt> attempts;
+    private final long waitTimeoutMs;
+    private final Counter replays;
+
+    public IdempotentCheckout(@Value("${kiosco.app.idempotencyKeyTtlMs}") long ttlMs,
+            @Value("${kiosco.app.idempotencyKeyMaxSize}") long maxSize,
+            @Value("${kiosco.app.checkoutTimeoutMs}") long waitTimeoutMs,
+            MeterRegistry meterRegistry) {
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.replays = meterRegistry.counter("kiosco.checkout.idempotent_replays");
+    }
+
+    public SaleResponseDTO submit(String idempotencyKey, String username, SaleRequestDTO request,
+            Supplier<SaleResponseDTO> checkout) {
+        Key key = new Key(username, idempotencyKey);
+        Attempt attempt = new Attempt(request, new CompletableFuture<>());
+        Attempt previous = attempts.asMap().putIfAbsent(key, attempt);
+        if (previous != null) {
+            return replay(previous, request);
+        }
+
+        try {
+            SaleResponseDTO response = checkout.get();
+            attempt.result().complete(response);
+            return response;
+        } catch (CheckoutOutcomeUnknownException e) {
+            e.getOutcome().whenComplete((response, error) -> {
+                if (error != null) {
+                    fail(key, attempt, error);
+                } else {
+                    attempt.result().complete(response);
+                }
+            });
+            throw e;
+        } catch (RuntimeException e) {
+            fail(key, attempt, e);
+            throw e;
+        }
+    }
+
+    private void fail(Key key, Attempt attempt, Throwable error) {
+        attempts.asMap().remove(key, attempt);
+        attempt.result().completeExceptionally(error);
+    }
+
+    private SaleResponseDTO replay(Attempt previous, SaleRequestDTO request) {
+        if (!previous.request().equals(request)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different sale");
+        }
+        try {
+            SaleResponseDTO response = previous.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            replays.increment();
+            return response;
+        } catch (ExecutionException e) {
+            // The original attempt failed: report the same error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A sale with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the sale");
+        }
+    }
+}
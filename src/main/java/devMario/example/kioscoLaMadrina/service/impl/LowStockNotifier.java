@@ -0,0 +1,60 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.event.LowStockChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Pushes low-stock changes to dashboards over Server-Sent Events. A new subscriber first gets the current
+ * list ({@code snapshot}), then one {@code low} or {@code cleared} event per changed product.
+ * <p>
+ * Nothing is dropped however far a dashboard falls behind (repeated changes to a product collapse into one
+ * message), and a slow dashboard only delays itself, never the checkout that caused the change. A keep-alive
+ * comment every {@code kiosco.app.lowStockStreamHeartbeatMs} keeps proxies from closing a quiet stream.
+ */
+@Component
+public class LowStockNotifier extends SseBroadcaster<Long, LowStockProductDTO> {
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+    public LowStockNotifier(@Value("${kiosco.app.lowStockStreamTimeoutMs}") long streamTimeoutMs,
+                            @Value("${kiosco.app.lowStockStreamHeartbeatMs}") long heartbeatMs) {
+        super("low-stock-push", streamTimeoutMs, heartbeatMs, 0);
+    }
+
+    // The pending value is the product as last reported, sent as "cleared" if it is no longer low when flushed
+    @EventListener
+    public void onLowStockChanged(LowStockChangedEvent event) {
+        publish(List.of(event.product().productId()), event.product());
+    }
+
+    @Override
+    protected Object snapshot() {
+        return lowStockTracker.lowStock();
+    }
+
+    @Override
+    protected List<SseEventBuilder> encode(Map<Long, LowStockProductDTO> changes) {
+        List<SseEventBuilder> events = new ArrayList<>();
+        changes.forEach((productId, reported) -> {
+            Optional<LowStockProductDTO> low = lowStockTracker.findLowStock(productId);
+            if (low.isPresent()) {
+                events.add(SseEmitter.event().name("low").data(low.get()));
+            } else {
+                events.add(SseEmitter.event().name("cleared").data(reported));
+            }
+        });
+        return events;
+    }
+}
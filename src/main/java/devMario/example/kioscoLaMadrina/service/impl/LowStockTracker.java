@@ -0,0 +1,154 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.event.CategoryChangedEvent;
+import devMario.example.kioscoLaMadrina.event.LowStockChangedEvent;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+import devMario.example.kioscoLaMadrina.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The active products in {@link ProductIndex} below their reorder threshold. Only the products a change touches
+ * are re-checked, and every entry into, change within or exit from the set is published as a
+ * {@link LowStockChangedEvent}.
+ */
+@Component
+public class LowStockTracker implements ProductIndexListener {
+    private static final Logger logger = LoggerFactory.getLogger(LowStockTracker.class);
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${kiosco.app.lowStockThreshold}")
+    private int defaultReorderThreshold;
+
+    // Category id -> reorder threshold, for categories that set one
+    private volatile Map<Long, Integer> categoryThresholds = new ConcurrentHashMap<>();
+    private volatile Map<Long, LowStockProductDTO> lowStock = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        productIndex.subscribe(this);
+    }
+
+    /**
+     * Active products below their reorder threshold, lowest stock first.
+     */
+    public List<LowStockProductDTO> lowStock() {
+        return lowStock.values().stream()
+                .sorted(Comparator.comparingInt(LowStockProductDTO::stockQuantity)
+                        .thenComparing(LowStockProductDTO::name, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+    }
+
+    public int lowStockCount() {
+        return lowStock.size();
+    }
+
+    public Optional<LowStockProductDTO> findLowStock(Long productId) {
+        return Optional.ofNullable(lowStock.get(productId));
+    }
+
+    @Override
+    public void reloaded(Collection<ProductDTO> products, List<ProductTombstone> tombstones) {
+        Map<Long, Integer> freshThresholds = new ConcurrentHashMap<>();
+        categoryRepository.findAll().stream()
+                .filter(category -> category.getReorderThreshold() != null)
+                .forEach(category -> freshThresholds.put(category.getId(), category.getReorderThreshold()));
+        categoryThresholds = freshThresholds;
+
+        Map<Long, LowStockProductDTO> freshLowStock = new ConcurrentHashMap<>();
+        for (ProductDTO product : products) {
+            if (isLow(product)) {
+                freshLowStock.put(product.id(), toLowStock(product));
+            }
+        }
+        lowStock = freshLowStock;
+        logger.info("Low stock loaded: {} products below their reorder threshold", freshLowStock.size());
+    }
+
+    @Override
+    public void updated(List<Update> updates) {
+        recheck(updates.stream().map(Update::productId).toList());
+    }
+
+    // Before ProductIndex applies the event, so the products it moves are checked against the new threshold.
+    // Re-checked even where a later change already set the category: the threshold may have moved.
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.reorderThreshold() != null) {
+            categoryThresholds.put(event.categoryId(), event.reorderThreshold());
+        } else {
+            categoryThresholds.remove(event.categoryId());
+        }
+        recheck(event.productRevisions().keySet());
+    }
+
+    private void recheck(Collection<Long> productIds) {
+        List<LowStockChangedEvent> changes = new ArrayList<>();
+        for (Long productId : productIds) {
+            productIndex.withEntry(productId, product -> check(productId, product, changes));
+        }
+        changes.forEach(eventPublisher::publishEvent);
+    }
+
+    /**
+     * Re-checks one product against its threshold and records the resulting change, if any. It runs under the
+     * product's entry lock, so checks of the same product never interleave and each one sees the latest state.
+     */
+    private void check(Long productId, ProductDTO product, List<LowStockChangedEvent> changes) {
+        if (product != null && isLow(product)) {
+            LowStockProductDTO entry = toLowStock(product);
+            if (!entry.equals(lowStock.put(productId, entry))) {
+                changes.add(new LowStockChangedEvent(entry, true));
+            }
+        } else {
+            LowStockProductDTO previous = lowStock.remove(productId);
+            if (previous != null) {
+                changes.add(new LowStockChangedEvent(product != null ? toLowStock(product) : previous, false));
+            }
+        }
+    }
+
+    private boolean isLow(ProductDTO product) {
+        return !Boolean.FALSE.equals(product.active()) && product.stockQuantity() < reorderThreshold(product);
+    }
+
+    private int reorderThreshold(ProductDTO product) {
+        if (product.reorderThreshold() != null) {
+            return product.reorderThreshold();
+        }
+        Integer categoryThreshold = product.categoryId() != null ? categoryThresholds.get(product.categoryId()) : null;
+        return categoryThreshold != null ? categoryThreshold : defaultReorderThreshold;
+    }
+
+    private LowStockProductDTO toLowStock(ProductDTO product) {
+        return new LowStockProductDTO(product.id(), product.barcode(), product.name(), product.stockQuantity(),
+                reorderThreshold(product), product.categoryId(), product.categoryName());
+    }
+}
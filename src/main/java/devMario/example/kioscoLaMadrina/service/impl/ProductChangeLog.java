@@ -0,0 +1,102 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductChangesDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Every product and tombstone in {@link ProductIndex}, ordered by the catalog version of its latest change, so
+ * {@link #changesSince(long)} never reads the database.
+ */
+@Component
+public class ProductChangeLog implements ProductIndexListener {
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    // One entry per product or tombstone at its latest version; logVersions holds that version by product id
+    private volatile NavigableSet<Change> changeLog = new ConcurrentSkipListSet<>(Change.ORDER);
+    private volatile Map<Long, Long> logVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        productIndex.subscribe(this);
+    }
+
+    /**
+     * Products (and tombstones) changed after {@code since}. The returned version is read before the log, so
+     * a change committing meanwhile is either included or comes after it; a change may be reported twice but
+     * never missed.
+     */
+    public ProductChangesDTO changesSince(long since) {
+        long version = catalogVersions.stable();
+        Map<Long, ProductDTO> updated = new LinkedHashMap<>();
+        Map<Long, Boolean> deleted = new LinkedHashMap<>();
+        for (Change change : changeLog.tailSet(new Change(since, Long.MAX_VALUE), false)) {
+            ProductDTO product = productIndex.findById(change.productId()).orElse(null);
+            if (product != null) {
+                updated.put(product.id(), product);
+            } else {
+                deleted.put(change.productId(), Boolean.TRUE);
+            }
+        }
+        return new ProductChangesDTO(version, List.copyOf(updated.values()), List.copyOf(deleted.keySet()));
+    }
+
+    @Override
+    public void reloaded(Collection<ProductDTO> products, List<ProductTombstone> tombstones) {
+        NavigableSet<Change> freshChangeLog = new ConcurrentSkipListSet<>(Change.ORDER);
+        Map<Long, Long> freshLogVersions = new ConcurrentHashMap<>();
+        for (ProductTombstone tombstone : tombstones) {
+            freshChangeLog.add(new Change(tombstone.getVersion(), tombstone.getProductId()));
+            freshLogVersions.put(tombstone.getProductId(), tombstone.getVersion());
+        }
+        for (ProductDTO product : products) {
+            freshChangeLog.add(new Change(product.version(), product.id()));
+            freshLogVersions.put(product.id(), product.version());
+        }
+        changeLog = freshChangeLog;
+        logVersions = freshLogVersions;
+        if (!freshChangeLog.isEmpty()) {
+            catalogVersions.advanceTo(freshChangeLog.last().version());
+        }
+    }
+
+    @Override
+    public void updated(List<Update> updates) {
+        for (Update update : updates) {
+            // A product's versions only grow, so whichever of two concurrent updates is logged last, the newer
+            // version stays
+            logVersions.compute(update.productId(), (id, logged) -> {
+                if (logged != null && logged >= update.version()) {
+                    return logged;
+                }
+                if (logged != null) {
+                    changeLog.remove(new Change(logged, id));
+                }
+                changeLog.add(new Change(update.version(), id));
+                return update.version();
+            });
+        }
+    }
+
+    private record Change(long version, long productId) {
+        static final Comparator<Change> ORDER =
+                Comparator.comparingLong(Change::version).thenComparingLong(Change::productId);
+    }
+}
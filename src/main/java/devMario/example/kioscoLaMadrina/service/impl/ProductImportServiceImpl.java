@@ -0,0 +1,482 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.dto.ImportFormat;
+import devMario.example.kioscoLaMadrina.dto.ProductImportErrorDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductImportResultDTO;
+import devMario.example.kioscoLaMadrina.event.ProductChangedEvent;
+import devMario.example.kioscoLaMadrina.mapper.ProductMapper;
+import devMario.example.kioscoLaMadrina.model.Category;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.repository.CategoryRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.service.ProductImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Imports a supplier catalog from CSV or NDJSON, reading the upload one row at a time. Rows are matched to
+ * existing products by barcode and written in batches, one transaction each, so memory use does not depend on
+ * the size of the file. Categories are resolved (by id or by name) from a map loaded once per import.
+ * <p>
+ * Invalid rows are reported and skipped. If a batch fails in the database, its rows are retried one by one
+ * so only the offending rows are rejected. Batches already written stay written if the upload breaks off.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+    private static final List<String> REQUIRED_COLUMNS = List.of("barcode", "name", "price", "stockQuantity");
+    private static final Set<String> COLUMNS = Set.of("barcode", "name", "price", "stockQuantity", "category",
+            "categoryId", "active", "reorderThreshold");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${kiosco.app.productImportBatchSize}")
+    private int batchSize;
+
+    // A valid row. Null optional fields leave an existing product's value unchanged.
+    private record Row(long line, String barcode, String name, BigDecimal price, int stockQuantity,
+            Long categoryId, Boolean active, Integer reorderThreshold) {
+    }
+
+    private static class RowException extends RuntimeException {
+        final long line;
+        final String barcode;
+
+        RowException(long line, String barcode, String message) {
+            super(message);
+            this.line = line;
+            this.barcode = barcode;
+        }
+    }
+
+    // The rest of the upload cannot be read (broken quoting, oversized record)
+    private static class StopImport extends RowException {
+        StopImport(long line, String message) {
+            super(line, null, message);
+        }
+    }
+
+    private interface RowSource {
+        // Next valid row, or null at the end of the upload; invalid rows throw RowException
+        Row next() throws IOException;
+    }
+
+    private static final class Tally {
+        private int created;
+        private int updated;
+        private int rejected;
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        void reject(long line, String barcode, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportErrorDTO(line, barcode, error));
+            }
+        }
+    }
+
+    @Override
+    public ProductImportResultDTO importProducts(ImportFormat format, InputStream in) throws IOException {
+        Set<Long> categoryIds = new HashSet<>();
+        Map<String, Long> categoryIdsByName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIds.add(category.getId());
+            categoryIdsByName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+        }
+        RowParser parser = new RowParser(categoryIds, categoryIdsByName);
+
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource rows = format == ImportFormat.CSV ? new CsvRows(reader, parser) : new NdjsonRows(reader, parser);
+
+        Tally tally = new Tally();
+        List<Row> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Row row;
+            try {
+                row = rows.next();
+            } catch (StopImport e) {
+                tally.reject(e.line, null, "Import stopped: " + e.getMessage());
+                break;
+            } catch (RowException e) {
+                tally.reject(e.line, e.barcode, e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                write(batch, tally);
+                batch.clear();
+            }
+        }
+        write(batch, tally);
+        return new ProductImportResultDTO(tally.created, tally.updated, tally.rejected, List.copyOf(tally.errors));
+    }
+
+    private void write(List<Row> batch, Tally tally) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            int[] counts = tx.execute(status -> upsert(batch));
+            tally.created += counts[0];
+            tally.updated += counts[1];
+            return;
+        } catch (RuntimeException e) {
+            // Find the rows the database refuses by writing them one at a time.
+        }
+        for (Row row : batch) {
+            try {
+                int[] counts = tx.execute(status -> upsert(List.of(row)));
+                tally.created += counts[0];
+                tally.updated += counts[1];
+            } catch (RuntimeException e) {
+                tally.reject(row.line(), row.barcode(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    // Runs in the batch's transaction. Returns {created, updated}.
+    private int[] upsert(List<Row> rows) {
+        long version = catalogVersions.current();
+        Map<String, Product> byBarcode = new LinkedHashMap<>();
+        // Locked, so a sale committing meanwhile waits and then sells from the imported stock instead of being lost
+        productRepository.findByBarcodeInForUpdate(rows.stream().map(Row::barcode).toList())
+                .forEach(product -> byBarcode.put(product.getBarcode(), product));
+
+        int created = 0;
+        int updated = 0;
+        for (Row row : rows) {
+            Product product = byBarcode.get(row.barcode());
+            if (product == null) {
+                product = Product.builder().barcode(row.barcode()).build();
+                byBarcode.put(row.barcode(), product);
+                created++;
+            } else {
+                product.setRevision(product.getRevision() + 1);
+                updated++;
+            }
+            product.setName(row.name());
+            product.setPrice(row.price());
+            product.setStockQuantity(row.stockQuantity());
+            if (row.categoryId() != null) {
+                product.setCategory(categoryRepository.getReferenceById(row.categoryId()));
+            }
+            if (row.active() != null) {
+                product.setActive(row.active());
+            }
+            if (row.reorderThreshold() != null) {
+                product.setReorderThreshold(row.reorderThreshold());
+            }
+            product.setVersion(version);
+        }
+
+        List<Product> saved = productRepository.saveAll(byBarcode.values());
+        productRepository.flush();
+        for (Product product : saved) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(productMapper.toDTO(product), product.getRevision()));
+        }
+        return new int[] { created, updated };
+    }
+
+    // Validates one row's fields, given as text by column name (null or blank when absent).
+    private record RowParser(Set<Long> categoryIds, Map<String, Long> categoryIdsByName) {
+
+        Row parse(long line, Function<String, String> field) {
+            String barcode = text(field, "barcode");
+            if (barcode == null) {
+                throw new RowException(line, null, "barcode is required");
+            }
+            String name = text(field, "name");
+            if (name == null) {
+                throw new RowException(line, barcode, "name is required");
+            }
+            BigDecimal price;
+            Integer stockQuantity;
+            Integer reorderThreshold;
+            try {
+                price = decimal(field, "price");
+                stockQuantity = integer(field, "stockQuantity");
+                reorderThreshold = integer(field, "reorderThreshold");
+            } catch (NumberFormatException e) {
+                throw new RowException(line, barcode, e.getMessage());
+            }
+            if (price == null || price.signum() <= 0) {
+                throw new RowException(line, barcode, "price must be greater than 0");
+            }
+            if (stockQuantity == null || stockQuantity < 0) {
+                throw new RowException(line, barcode, "stockQuantity must be 0 or more");
+            }
+            if (reorderThreshold != null && reorderThreshold < 0) {
+                throw new RowException(line, barcode, "reorderThreshold must be 0 or more");
+            }
+
+            Long categoryId = null;
+            String categoryIdText = text(field, "categoryId");
+            String categoryName = text(field, "category");
+            if (categoryIdText != null) {
+                try {
+                    categoryId = Long.valueOf(categoryIdText);
+                } catch (NumberFormatException e) {
+                    // reported below as an unknown category
+                }
+                if (categoryId == null || !categoryIds.contains(categoryId)) {
+                    throw new RowException(line, barcode, "Unknown category id: " + categoryIdText);
+                }
+            } else if (categoryName != null) {
+                categoryId = categoryIdsByName.get(categoryName.toLowerCase(Locale.ROOT));
+                if (categoryId == null) {
+                    throw new RowException(line, barcode, "Unknown category: " + categoryName);
+                }
+            }
+
+            Boolean active = null;
+            String activeText = text(field, "active");
+            if (activeText != null) {
+                if (activeText.equalsIgnoreCase("true")) {
+                    active = true;
+                } else if (activeText.equalsIgnoreCase("false")) {
+                    active = false;
+                } else {
+                    throw new RowException(line, barcode, "active must be true or false");
+                }
+            }
+            return new Row(line, barcode, name, price, stockQuantity, categoryId, active, reorderThreshold);
+        }
+
+        private static String text(Function<String, String> field, String column) {
+            String value = field.apply(column);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        private static BigDecimal decimal(Function<String, String> field, String column) {
+            String value = text(field, column);
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(column + " is not a number: " + value);
+            }
+        }
+
+        private static Integer integer(Function<String, String> field, String column) {
+            String value = text(field, column);
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(column + " is not a whole number: " + value);
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns (any order, case-insensitive). Quoted fields may hold
+     * commas, doubled quotes and line breaks.
+     */
+    private static final class CsvRows implements RowSource {
+        private final Reader reader;
+        private final RowParser parser;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int fieldCount;
+        private long line = 1;
+        private long recordLine;
+
+        CsvRows(Reader reader, RowParser parser) throws IOException {
+            this.reader = reader;
+            this.parser = parser;
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            fieldCount = header.size();
+            for (int i = 0; i < header.size(); i++) {
+                // A byte order mark (spreadsheet exports) would stick to the first column name
+                String name = header.get(i).replace("\uFEFF", "").trim();
+                String column = COLUMNS.stream().filter(name::equalsIgnoreCase).findFirst()
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown column: " + name));
+                if (columns.put(column, i) != null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duplicate column: " + column);
+                }
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing column: " + required);
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() != fieldCount) {
+                throw new RowException(recordLine, null, "Expected " + fieldCount + " fields, found " + record.size());
+            }
+            return parser.parse(recordLine, column -> {
+                Integer index = columns.get(column);
+                return index != null ? record.get(index) : null;
+            });
+        }
+
+        // Null at the end of the input; blank lines between records are skipped.
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int length = 0;
+            while (true) {
+                if (++length > MAX_RECORD_CHARS) {
+                    throw new StopImport(recordLine, "record longer than " + MAX_RECORD_CHARS + " characters");
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        throw new StopImport(recordLine, "unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            int c = reader.read();
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * One JSON object per line, with the same field names as the CSV columns.
+     */
+    private final class NdjsonRows implements RowSource {
+        private final Reader reader;
+        private final RowParser parser;
+        private final StringBuilder buffer = new StringBuilder();
+        private long line;
+
+        NdjsonRows(Reader reader, RowParser parser) {
+            this.reader = reader;
+            this.parser = parser;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                throw new RowException(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new RowException(line, null, "Expected a JSON object");
+            }
+            return parser.parse(line, column -> {
+                JsonNode value = node.get(column);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+
+        private String readLine() throws IOException {
+            buffer.setLength(0);
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            line++;
+            while (c != -1 && c != '\n') {
+                if (buffer.length() == MAX_RECORD_CHARS) {
+                    throw new StopImport(line, "line longer than " + MAX_RECORD_CHARS + " characters");
+                }
+                buffer.append((char) c);
+                c = reader.read();
+            }
+            return buffer.toString();
+        }
+    }
+}
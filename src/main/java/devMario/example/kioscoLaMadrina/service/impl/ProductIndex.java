@@ -0,0 +1,287 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.BarcodeIndexStatsDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.event.CatalogChangedEvent;
+import devMario.example.kioscoLaMadrina.event.CategoryChangedEvent;
+import devMario.example.kioscoLaMadrina.event.ProductChangedEvent;
+import devMario.example.kioscoLaMadrina.event.ProductsAdjustedEvent;
+import devMario.example.kioscoLaMadrina.event.StockChangedEvent;
+import devMario.example.kioscoLaMadrina.mapper.ProductMapper;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of the catalog keyed by id and barcode, so scanner lookups never reach the database. It is
+ * loaded before the web server starts and then kept current from committed product, category, adjustment and
+ * stock events. Those are applied in whatever order their transactions finish, which is not always the order
+ * they committed in, so every event carries the values it committed and the product's revision
+ * ({@link Product#getRevision()}); a value already set by a later revision is never overwritten.
+ * <p>
+ * Views derived from the catalog ({@link ProductSearch}, {@link LowStockTracker}, {@link ProductChangeLog})
+ * subscribe as {@link ProductIndexListener}s and are told about every applied change; after them, a
+ * {@link CatalogChangedEvent} names the products the change touched.
+ */
+@Component
+public class ProductIndex implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndex.class);
+
+    private static final Set<Field> ALL_FIELDS = EnumSet.allOf(Field.class);
+    private static final Set<Field> STOCK = EnumSet.of(Field.STOCK);
+    private static final Set<Field> PRICE = EnumSet.of(Field.PRICE);
+    private static final Set<Field> CATEGORY = EnumSet.of(Field.CATEGORY);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile Map<Long, ProductDTO> byId = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> idByBarcode = new ConcurrentHashMap<>();
+    // Product id -> revision each Field was last set at, indexed by ordinal; kept for deleted products too
+    private volatile Map<Long, long[]> revisions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final List<ProductIndexListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Called from the listeners' @PostConstruct, so all of them are registered before the first reload
+    void subscribe(ProductIndexListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the index from the database and swaps it in at once.
+     */
+    public void reload() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        List<ProductTombstone> tombstones = new ArrayList<>();
+        Map<Long, long[]> freshRevisions = new ConcurrentHashMap<>();
+        List<ProductDTO> products = tx.execute(status -> {
+            tombstones.addAll(tombstoneRepository.findAll());
+            List<ProductDTO> loaded = new ArrayList<>();
+            for (Product product : productRepository.findAll()) {
+                loaded.add(productMapper.toDTO(product));
+                freshRevisions.put(product.getId(), revisions(product.getRevision()));
+            }
+            return loaded;
+        });
+
+        Map<Long, ProductDTO> freshById = new ConcurrentHashMap<>();
+        Map<String, Long> freshByBarcode = new ConcurrentHashMap<>();
+        for (ProductDTO product : products) {
+            freshById.put(product.id(), product);
+            freshByBarcode.put(product.barcode(), product.id());
+        }
+        byId = freshById;
+        idByBarcode = freshByBarcode;
+        revisions = freshRevisions;
+        for (ProductIndexListener listener : listeners) {
+            listener.reloaded(products, tombstones);
+        }
+        logger.info("Product index loaded: {} products", freshById.size());
+    }
+
+    public Optional<ProductDTO> findByBarcode(String barcode) {
+        Long id = idByBarcode.get(barcode);
+        ProductDTO product = id != null ? byId.get(id) : null;
+        if (product != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(product);
+    }
+
+    public Optional<ProductDTO> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Collection<ProductDTO> all() {
+        return byId.values();
+    }
+
+    public BarcodeIndexStatsDTO stats() {
+        return new BarcodeIndexStatsDTO(byId.size(), hits.sum(), misses.sum());
+    }
+
+    /**
+     * Runs {@code action} on the product's current entry ({@code null} if there is none) under the entry's lock,
+     * so it sees the latest state and no change to the product is applied meanwhile.
+     */
+    void withEntry(Long productId, Consumer<ProductDTO> action) {
+        byId.compute(productId, (id, product) -> {
+            action.accept(product);
+            return product;
+        });
+    }
+
+    // The listeners run first among the transaction's synchronizations, before CatalogVersions releases the
+    // transaction's version: a client that has seen that version must also see the change.
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductIndexListener.Update> updates = new ArrayList<>(1);
+        apply(event.productId(), event.version(), event.revision(), ALL_FIELDS, product -> event.product(), updates);
+        publish(updates, false);
+    }
+
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockChanged(StockChangedEvent event) {
+        List<ProductIndexListener.Update> updates = new ArrayList<>(event.levels().size());
+        for (StockChangedEvent.Level level : event.levels()) {
+            apply(level.productId(), event.version(), level.revision(), STOCK,
+                    product -> product.withStockQuantity(level.stockQuantity()), updates);
+        }
+        publish(updates, true);
+    }
+
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsAdjusted(ProductsAdjustedEvent event) {
+        List<ProductIndexListener.Update> updates = new ArrayList<>(event.products().size());
+        for (ProductsAdjustedEvent.Adjusted adjusted : event.products()) {
+            apply(adjusted.productId(), event.version(), adjusted.revision(), event.stockOnly() ? STOCK : PRICE,
+                    product -> product.withPrice(adjusted.price()).withStockQuantity(adjusted.stockQuantity()),
+                    updates);
+        }
+        publish(updates, event.stockOnly());
+    }
+
+    // After LowStockTracker has taken the category's new reorder threshold
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        List<ProductIndexListener.Update> updates = new ArrayList<>(event.productRevisions().size());
+        for (Map.Entry<Long, Long> product : event.productRevisions().entrySet()) {
+            apply(product.getKey(), event.version(), product.getValue(), CATEGORY, current ->
+                    current.withCategory(event.isDeleted() ? null : event.categoryId(), event.name()), updates);
+        }
+        publish(updates, false);
+    }
+
+    private void publish(List<ProductIndexListener.Update> updates, boolean stockOnly) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        for (ProductIndexListener listener : listeners) {
+            listener.updated(updates);
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent(
+                updates.stream().map(ProductIndexListener.Update::productId).toList(), stockOnly));
+    }
+
+    /**
+     * Applies a committed change to a product's entry ({@code change} returns the product as the change left it,
+     * {@code null} if deleted) and to the barcode index, under the entry's lock, and adds what changed to
+     * {@code updates}. The version never goes backwards. Only the {@code fields} the change sets are taken, and of
+     * those only the ones last set at an older revision than {@code revision}. A change to some fields of a
+     * product not in the index is ignored.
+     */
+    private void apply(Long productId, long version, long revision, Set<Field> fields,
+            UnaryOperator<ProductDTO> change, List<ProductIndexListener.Update> updates) {
+        AtomicReference<ProductIndexListener.Update> applied = new AtomicReference<>();
+        byId.compute(productId, (id, current) -> {
+            if (current == null && !fields.equals(ALL_FIELDS)) {
+                return null;
+            }
+            long[] seen = revisions.computeIfAbsent(id, key -> revisions(-1L));
+            Set<Field> newer = EnumSet.noneOf(Field.class);
+            for (Field field : fields) {
+                if (revision > seen[field.ordinal()]) {
+                    seen[field.ordinal()] = revision;
+                    newer.add(field);
+                }
+            }
+            if (newer.isEmpty()) {
+                return current;
+            }
+
+            ProductDTO changed = change.apply(current);
+            ProductDTO next = current == null || changed == null ? changed : merge(current, changed, newer);
+            if (current == null && next == null) {
+                return null;
+            }
+            long nextVersion = Math.max(version, current != null ? current.version() : 0L);
+            if (current != null && (next == null || !current.barcode().equals(next.barcode()))) {
+                idByBarcode.remove(current.barcode(), id);
+            }
+            if (next != null) {
+                next = next.withVersion(nextVersion);
+                idByBarcode.put(next.barcode(), id);
+            }
+            applied.set(new ProductIndexListener.Update(id, current, next, nextVersion));
+            return next;
+        });
+        if (applied.get() != null) {
+            updates.add(applied.get());
+        }
+    }
+
+    // The current entry with the given fields taken from the changed one
+    private static ProductDTO merge(ProductDTO current, ProductDTO changed, Set<Field> take) {
+        ProductDTO details = take.contains(Field.DETAILS) ? changed : current;
+        ProductDTO category = take.contains(Field.CATEGORY) ? changed : current;
+        return new ProductDTO(current.id(), details.barcode(), details.name(),
+                (take.contains(Field.PRICE) ? changed : current).price(),
+                (take.contains(Field.STOCK) ? changed : current).stockQuantity(),
+                category.categoryId(), category.categoryName(), details.active(), details.reorderThreshold(),
+                current.version());
+    }
+
+    private static long[] revisions(long revision) {
+        long[] revisions = new long[Field.values().length];
+        Arrays.fill(revisions, revision);
+        return revisions;
+    }
+
+    // Groups of product fields that different changes set independently: a sale only sets the stock, for example
+    private enum Field {
+        STOCK, PRICE, CATEGORY, DETAILS
+    }
+}
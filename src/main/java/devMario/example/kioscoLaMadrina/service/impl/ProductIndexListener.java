@@ -0,0 +1,33 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps a view derived from {@link ProductIndex} current. Listeners register with
+ * {@link ProductIndex#subscribe(ProductIndexListener)} and are called outside the entries' locks; a listener
+ * whose state depends on the order of a product's changes re-reads the entry with
+ * {@link ProductIndex#withEntry}.
+ */
+interface ProductIndexListener {
+
+    /**
+     * The index was rebuilt from the database; {@code tombstones} mark the deleted products.
+     */
+    void reloaded(Collection<ProductDTO> products, List<ProductTombstone> tombstones);
+
+    /**
+     * One committed change was applied to these products, each at the given catalog version.
+     */
+    void updated(List<Update> updates);
+
+    /**
+     * A product's entry before and after a change; {@code previous} is null for a new product, {@code next}
+     * for a deleted one.
+     */
+    record Update(Long productId, ProductDTO previous, ProductDTO next, long version) {
+    }
+}
@@ -0,0 +1,91 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductPageDTO;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked, paginated product search over {@link ProductIndex}. The trigram and barcode lookup lives in a
+ * {@link ProductSearchIndex}, which is updated only when a product's name or barcode changes.
+ */
+@Component
+public class ProductSearch implements ProductIndexListener {
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    private volatile ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    @PostConstruct
+    void subscribe() {
+        productIndex.subscribe(this);
+    }
+
+    /**
+     * Ranked search: exact barcode, then exact name, name prefix, word prefix, name substring and barcode
+     * prefix; ties are ordered by name. A blank query lists the whole (filtered) catalog by name.
+     */
+    public ProductPageDTO search(String query, Long categoryId, Boolean active, int page, int size) {
+        Comparator<ProductDTO> byName = Comparator.comparing(ProductDTO::name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(ProductDTO::id);
+        List<ProductDTO> matches;
+        if (query == null || query.isBlank()) {
+            matches = productIndex.all().stream()
+                    .filter(product -> accepts(product, categoryId, active))
+                    .sorted(byName)
+                    .toList();
+        } else {
+            Map<Long, Integer> ranks = searchIndex.match(query);
+            matches = ranks.keySet().stream()
+                    .map(id -> productIndex.findById(id).orElse(null))
+                    .filter(product -> product != null && accepts(product, categoryId, active))
+                    .sorted(Comparator.<ProductDTO>comparingInt(product -> ranks.get(product.id())).thenComparing(byName))
+                    .toList();
+        }
+
+        int from = (int) Math.min((long) page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        return new ProductPageDTO(matches.subList(from, to), page, size, matches.size());
+    }
+
+    private static boolean accepts(ProductDTO product, Long categoryId, Boolean active) {
+        return (categoryId == null || categoryId.equals(product.categoryId()))
+                && (active == null || active.equals(product.active()));
+    }
+
+    @Override
+    public void reloaded(Collection<ProductDTO> products, List<ProductTombstone> tombstones) {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        for (ProductDTO product : products) {
+            fresh.put(product.id(), product.name(), product.barcode());
+        }
+        searchIndex = fresh;
+    }
+
+    @Override
+    public void updated(List<Update> updates) {
+        for (Update update : updates) {
+            if (update.next() != null && update.previous() != null
+                    && update.previous().name().equals(update.next().name())
+                    && update.previous().barcode().equals(update.next().barcode())) {
+                continue;
+            }
+            // Re-read under the entry's lock, so two renames applied concurrently cannot leave the older one
+            productIndex.withEntry(update.productId(), product -> {
+                if (product == null) {
+                    searchIndex.remove(update.productId());
+                } else {
+                    searchIndex.put(product.id(), product.name(), product.barcode());
+                }
+            });
+        }
+    }
+}
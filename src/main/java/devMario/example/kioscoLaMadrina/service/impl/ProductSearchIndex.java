@@ -0,0 +1,145 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index over normalized product names (lower case, accents and repeated spaces removed) plus a
+ * sorted barcode map. Writers are serialized; lookups run concurrently with them.
+ */
+final class ProductSearchIndex {
+    static final int BARCODE_EXACT = 0;
+    static final int NAME_EXACT = 1;
+    static final int NAME_PREFIX = 2;
+    static final int WORD_PREFIX = 3;
+    static final int NAME_SUBSTRING = 4;
+    static final int BARCODE_PREFIX = 5;
+
+    private static final int GRAM = 3;
+    // Shorter numeric prefixes would match most of the catalog.
+    private static final int MIN_BARCODE_PREFIX = 4;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private record Entry(String name, String barcode) {
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Long> barcodes = new ConcurrentSkipListMap<>();
+
+    synchronized void put(Long id, String name, String barcode) {
+        remove(id);
+        String normalized = normalize(name);
+        entries.put(id, new Entry(normalized, barcode));
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        barcodes.put(barcode, id);
+    }
+
+    synchronized void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : grams(entry.name())) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        barcodes.remove(entry.barcode(), id);
+    }
+
+    /**
+     * Returns the ids matching {@code query} by name or barcode, each with its best rank (lower ranks first).
+     */
+    Map<Long, Integer> match(String query) {
+        Map<Long, Integer> ranks = new HashMap<>();
+
+        String normalized = normalize(query);
+        if (!normalized.isEmpty()) {
+            for (Long id : nameCandidates(normalized)) {
+                Entry entry = entries.get(id);
+                int rank = entry != null ? rank(entry.name(), normalized) : -1;
+                if (rank >= 0) {
+                    ranks.put(id, rank);
+                }
+            }
+        }
+
+        String code = query.strip();
+        if (code.length() >= MIN_BARCODE_PREFIX) {
+            for (Long id : barcodes.subMap(code, true, code + Character.MAX_VALUE, false).values()) {
+                ranks.merge(id, BARCODE_PREFIX, Math::min);
+            }
+        }
+        Long exact = barcodes.get(code);
+        if (exact != null) {
+            ranks.put(exact, BARCODE_EXACT);
+        }
+        return ranks;
+    }
+
+    /**
+     * Products that may contain the query: the shortest posting list among its trigrams, or every product
+     * when the query is too short to have any.
+     */
+    private Collection<Long> nameCandidates(String query) {
+        if (query.length() < GRAM) {
+            return entries.keySet();
+        }
+        Set<Long> smallest = null;
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    private static int rank(String name, String query) {
+        if (name.equals(query)) {
+            return NAME_EXACT;
+        }
+        if (name.startsWith(query)) {
+            return NAME_PREFIX;
+        }
+        if (name.contains(" " + query)) {
+            return WORD_PREFIX;
+        }
+        return name.contains(query) ? NAME_SUBSTRING : -1;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+}
@@ -1,22 +1,45 @@
 package devMario.example.kioscoLaMadrina.service.impl;
 
+import devMario.example.kioscoLaMadrina.dto.AdjustmentType;
+import devMario.example.kioscoLaMadrina.dto.BarcodeIndexStatsDTO;
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentResultDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductChangesDTO;
 import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductPageDTO;
+import devMario.example.kioscoLaMadrina.event.ProductChangedEvent;
+import devMario.example.kioscoLaMadrina.event.ProductsAdjustedEvent;
 import devMario.example.kioscoLaMadrina.model.Category;
 import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.ProductAdjustment;
+import devMario.example.kioscoLaMadrina.model.ProductTombstone;
 import devMario.example.kioscoLaMadrina.repository.CategoryRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductAdjustmentRepository;
 import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductTombstoneRepository;
 import devMario.example.kioscoLaMadrina.service.ProductService;
 import devMario.example.kioscoLaMadrina.mapper.ProductMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private ProductRepository productRepository;
@@ -24,17 +47,56 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ProductAdjustmentRepository adjustmentRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private ProductSearch productSearch;
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductDTO> findAll() {
-        return productRepository.findAll().stream()
-                .map(productMapper::toDTO)
+        return productIndex.all().stream()
+                .sorted(Comparator.comparing(ProductDTO::id))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getCatalogVersion() {
+        return catalogVersions.stable();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductChangesDTO findChangesSince(long since) {
+        if (since < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must not be negative");
+        }
+        return productChangeLog.changesSince(since);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ProductDTO findById(Long id) {
@@ -43,9 +105,38 @@ public class ProductServiceImpl implements ProductService {
         return productMapper.toDTO(product);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductPageDTO search(String query, Long categoryId, Boolean active, int page, int size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must not be negative");
+        }
+        return productSearch.search(query, categoryId, active, page, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductDTO findByBarcode(String barcode) {
+        return productIndex.findByBarcode(barcode)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No product with barcode " + barcode));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BarcodeIndexStatsDTO getBarcodeIndexStats() {
+        return productIndex.stats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<LowStockProductDTO> getLowStock() {
+        return lowStockTracker.lowStock();
+    }
+
     @Override
     public ProductDTO create(ProductDTO productDTO) {
         Product product = productMapper.toEntity(productDTO);
+        product.setVersion(catalogVersions.current());
 
         if (productDTO.categoryId() != null) {
             Category category = categoryRepository.findById(productDTO.categoryId())
@@ -54,18 +145,27 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        ProductDTO saved = productMapper.toDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved, savedProduct.getRevision()));
+        return saved;
     }
 
     @Override
     public ProductDTO update(Long id, ProductDTO productDTO) {
-        Product product = productRepository.findById(id)
+        // Locked, so the revision orders this change after any sale that committed first
+        Product product = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
         product.setName(productDTO.name());
         product.setPrice(productDTO.price());
         product.setStockQuantity(productDTO.stockQuantity());
         product.setBarcode(productDTO.barcode());
+        if (productDTO.active() != null) {
+            product.setActive(productDTO.active());
+        }
+        product.setReorderThreshold(productDTO.reorderThreshold());
+        product.setVersion(catalogVersions.current());
+        product.setRevision(product.getRevision() + 1);
 
         if (productDTO.categoryId() != null) {
             Category category = categoryRepository.findById(productDTO.categoryId())
@@ -74,14 +174,102 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
-        return productMapper.toDTO(updatedProduct);
+        ProductDTO updated = productMapper.toDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updated, updatedProduct.getRevision()));
+        return updated;
     }
 
     @Override
     public void delete(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found");
+        Product product = productRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        long version = catalogVersions.current();
+        productRepository.delete(product);
+        tombstoneRepository.save(new ProductTombstone(id, version));
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id, version, product.getRevision() + 1));
+    }
+
+    /**
+     * One set-based UPDATE for all matching products instead of loading and saving each one. If the change would
+     * leave any of them with a price of 0 or less or with negative stock, nothing is changed.
+     */
+    @Override
+    public ProductAdjustmentResultDTO adjust(ProductAdjustmentRequestDTO request, boolean dryRun, String username) {
+        String name = request.name() != null && !request.name().isBlank() ? request.name().trim() : null;
+        String barcode = request.barcode() != null && !request.barcode().isBlank() ? request.barcode().trim() : null;
+        if (request.categoryId() == null && name == null && barcode == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one of categoryId, name or barcode is required");
+        }
+        String namePattern = name == null ? "%" : "%" + name.toLowerCase(Locale.ROOT)
+                .replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+
+        // New price = ROUND(price + price * percent / 100 + amount, 2); new stock = stock + delta. Price parameters
+        // are bound with the price column's scale, so they are limited to 2 decimals rather than silently rounded.
+        BigDecimal percent = BigDecimal.ZERO;
+        BigDecimal amount = BigDecimal.ZERO;
+        int delta = 0;
+        switch (request.type()) {
+            case PRICE_PERCENT -> {
+                percent = cents(request.amount());
+                if (percent.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A price change must be more than -100%");
+                }
+            }
+            case PRICE_AMOUNT -> amount = cents(request.amount());
+            case STOCK -> {
+                try {
+                    delta = request.amount().intValueExact();
+                } catch (ArithmeticException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A stock adjustment must be a whole number");
+                }
+            }
+        }
+        boolean stock = request.type() == AdjustmentType.STOCK;
+
+        long matched = productRepository.countMatching(request.categoryId(), namePattern, barcode);
+        long rejected = stock
+                ? productRepository.countMatchingWithStockBelowZero(request.categoryId(), namePattern, barcode, delta)
+                : productRepository.countMatchingWithPriceAtOrBelowZero(request.categoryId(), namePattern, barcode,
+                        percent, amount);
+        if (dryRun) {
+            return new ProductAdjustmentResultDTO(true, matched, rejected, 0);
+        }
+        if (rejected > 0) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, rejected + " of " + matched
+                    + " matching products would end with " + (stock ? "negative stock" : "a price of 0 or less"));
+        }
+
+        long version = catalogVersions.current();
+        int updated = stock
+                ? productRepository.adjustStock(request.categoryId(), namePattern, barcode, delta, version)
+                : productRepository.adjustPrices(request.categoryId(), namePattern, barcode, percent, amount, version);
+
+        List<ProductsAdjustedEvent.Adjusted> adjusted = new ArrayList<>(updated);
+        if (updated > 0) {
+            for (Object[] row : productRepository.findAdjustedByVersion(version)) {
+                adjusted.add(new ProductsAdjustedEvent.Adjusted((Long) row[0], (BigDecimal) row[1], (Integer) row[2],
+                        (Long) row[3]));
+            }
+        }
+        adjustmentRepository.save(ProductAdjustment.builder()
+                .username(username)
+                .createdAt(LocalDateTime.now())
+                .type(request.type())
+                .amount(request.amount())
+                .categoryId(request.categoryId())
+                .nameFilter(name)
+                .barcodeFilter(barcode)
+                .updatedCount(updated)
+                .version(version)
+                .build());
+        eventPublisher.publishEvent(new ProductsAdjustedEvent(adjusted, stock, version));
+        return new ProductAdjustmentResultDTO(false, matched, 0, updated);
+    }
+
+    private static BigDecimal cents(BigDecimal value) {
+        if (value.stripTrailingZeros().scale() > 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A price adjustment allows at most 2 decimals");
         }
-        productRepository.deleteById(id);
+        return value;
     }
 }
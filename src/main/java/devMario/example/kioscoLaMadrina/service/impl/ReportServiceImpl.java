@@ -0,0 +1,62 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.CategoryRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.HourlyRevenueDTO;
+import devMario.example.kioscoLaMadrina.dto.TopProductDTO;
+import devMario.example.kioscoLaMadrina.model.CategorySalesRollup;
+import devMario.example.kioscoLaMadrina.repository.CategorySalesRollupRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductSalesRollupRepository;
+import devMario.example.kioscoLaMadrina.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales reports over any range of days (both ends included). They read the rollup tables that checkout keeps
+ * up to date, so their cost depends on the number of days and products, not on the number of sales.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportServiceImpl implements ReportService {
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ProductSalesRollupRepository productRollupRepository;
+
+    @Autowired
+    private CategorySalesRollupRepository categoryRollupRepository;
+
+    @Override
+    public List<TopProductDTO> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        requireRange(from, to);
+        return productRollupRepository.findTopProducts(from, to, PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    @Override
+    public List<CategoryRevenueDTO> getRevenueByCategory(LocalDate from, LocalDate to) {
+        requireRange(from, to);
+        return categoryRollupRepository.findRevenueByCategory(from, to).stream()
+                .map(row -> row.categoryId() == CategorySalesRollup.UNCATEGORIZED
+                        ? new CategoryRevenueDTO(null, null, row.unitsSold(), row.revenue())
+                        : row)
+                .toList();
+    }
+
+    @Override
+    public List<HourlyRevenueDTO> getRevenueByHour(LocalDate from, LocalDate to) {
+        requireRange(from, to);
+        return productRollupRepository.findRevenueByHour(from, to);
+    }
+
+    private void requireRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.dto.ExportFormat;
+import devMario.example.kioscoLaMadrina.service.SaleExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams sales straight from a forward-only JDBC cursor to the response, one row at a time,
+ * so an export never holds more than the driver's fetch window in memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SaleExportServiceImpl implements SaleExportService {
+    private static final int FETCH_SIZE = 500;
+
+    private static final String[] SALE_COLUMNS = { "saleId", "dateTime", "username", "totalAmount", "items" };
+    private static final String SALES_SQL = "SELECT s.id, s.date_time, u.username, s.total_amount, " +
+            "(SELECT COUNT(*) FROM sale_details d WHERE d.sale_id = s.id) " +
+            "FROM sales s LEFT JOIN users u ON u.id = s.user_id";
+
+    private static final String[] DETAIL_COLUMNS = { "saleId", "dateTime", "username", "productId", "barcode",
+            "productName", "quantity", "unitPrice", "subtotal" };
+    private static final String DETAILS_SQL = "SELECT s.id, s.date_time, u.username, d.product_id, p.barcode, " +
+            "p.name, d.quantity, d.unit_price, d.subtotal " +
+            "FROM sales s JOIN sale_details d ON d.sale_id = s.id " +
+            "LEFT JOIN users u ON u.id = s.user_id LEFT JOIN products p ON p.id = d.product_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void exportSales(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out)
+            throws IOException {
+        stream(SALES_SQL, "s.date_time, s.id", SALE_COLUMNS, format, from, to, out);
+    }
+
+    @Override
+    public void exportSaleDetails(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out)
+            throws IOException {
+        stream(DETAILS_SQL, "s.date_time, s.id, d.id", DETAIL_COLUMNS, format, from, to, out);
+    }
+
+    private void stream(String select, String orderBy, String[] columns, ExportFormat format,
+            LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" s.date_time >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" s.date_time < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY ").append(orderBy);
+
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out, columns) : new NdjsonRowWriter(out, columns);
+
+        // The PostgreSQL driver only uses a server-side cursor inside a transaction with a fetch size set.
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            try {
+                writer.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.finish();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final int columnCount;
+
+        CsvRowWriter(OutputStream out, String[] columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.columnCount = columns.length;
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value instanceof Timestamp ts) {
+                    value = ts.toLocalDateTime();
+                }
+                if (value instanceof String text) {
+                    writer.write(escape(neutralizeFormula(text)));
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // Text that a spreadsheet would run as a formula (names, barcodes and usernames are user input) gets a
+        // leading apostrophe, so it opens as plain text. Numbers and dates are never prefixed.
+        private static String neutralizeFormula(String value) {
+            if (value.isEmpty()) {
+                return value;
+            }
+            return switch (value.charAt(0)) {
+                case '=', '+', '-', '@', '\t', '\r' -> "'" + value;
+                default -> value;
+            };
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final String[] columns;
+        private boolean empty = true;
+
+        NdjsonRowWriter(OutputStream out, String[] columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(columns[i]);
+                if (value instanceof Timestamp ts) {
+                    generator.writeString(ts.toLocalDateTime().toString());
+                } else {
+                    generator.writeObject(value);
+                }
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
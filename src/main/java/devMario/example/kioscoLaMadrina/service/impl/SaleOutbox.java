@@ -0,0 +1,245 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import devMario.example.kioscoLaMadrina.model.OutboxEvent;
+import devMario.example.kioscoLaMadrina.repository.OutboxEventRepository;
+import devMario.example.kioscoLaMadrina.service.SaleCompletedConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for completed sales. Checkout only writes a compact {@link SaleCompletedEvent} row
+ * ({@link #append}); a single dispatcher thread delivers the rows to every {@link SaleCompletedConsumer}
+ * after commit, in batches, oldest first.
+ * <p>
+ * Sales of the same product lock its row before their event is written, so their events are numbered in
+ * commit order and each product's sales are delivered in the order they happened. A batch that fails is
+ * retried one event at a time; an event that still fails after {@code kiosco.app.outboxMaxAttempts} tries is
+ * set aside (left in the table with its error) so the events behind it keep flowing.
+ */
+@Component
+public class SaleOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(SaleOutbox.class);
+    private static final String TYPE = "SaleCompleted";
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private List<SaleCompletedConsumer> consumers;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${kiosco.app.outboxBatchSize}")
+    private int batchSize;
+
+    @Value("${kiosco.app.outboxPollIntervalMs}")
+    private long pollIntervalMs;
+
+    @Value("${kiosco.app.outboxRetryDelayMs}")
+    private long retryDelayMs;
+
+    @Value("${kiosco.app.outboxMaxAttempts}")
+    private int maxAttempts;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private TransactionTemplate tx;
+    private Thread dispatcher;
+    private volatile boolean running;
+    // Age of the oldest undelivered event at the last poll
+    private volatile long lagMs;
+
+    private Timer deliveryLag;
+    private Counter delivered;
+    private Counter failures;
+    private Counter setAside;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+        TimeGauge.builder("kiosco.outbox.lag", this, TimeUnit.MILLISECONDS, outbox -> outbox.lagMs)
+                .description("Age of the oldest event waiting in the outbox")
+                .register(meterRegistry);
+        deliveryLag = Timer.builder("kiosco.outbox.delivery")
+                .description("Time from writing an event to delivering it")
+                .register(meterRegistry);
+        delivered = meterRegistry.counter("kiosco.outbox.delivered");
+        failures = meterRegistry.counter("kiosco.outbox.failures");
+        setAside = meterRegistry.counter("kiosco.outbox.set_aside");
+    }
+
+    /**
+     * Writes the sales' events. Must run in the transaction that records them, after their stock was taken.
+     */
+    public void append(List<SaleCompletedEvent> sales) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> rows = new ArrayList<>(sales.size());
+        for (SaleCompletedEvent sale : sales) {
+            try {
+                rows.add(OutboxEvent.builder()
+                        .type(TYPE)
+                        .payload(objectMapper.writeValueAsString(sale))
+                        .createdAt(now)
+                        .build());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize sale " + sale.saleId(), e);
+            }
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    // Runs after DashboardServiceImpl's backfill (ordered first), so a rebuild from history never races delivery.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name("sale-outbox").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release();
+        if (dispatcher != null) {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        wakeUp.release();
+    }
+
+    private void run() {
+        while (running) {
+            long pause = pollIntervalMs;
+            try {
+                int count = dispatch();
+                if (count == batchSize) {
+                    continue;
+                }
+                if (count < 0) {
+                    pause = retryDelayMs;
+                }
+            } catch (RuntimeException e) {
+                // The database itself is failing; try again later.
+                logger.warn("Outbox dispatch failed: {}", e.getMessage());
+                pause = retryDelayMs;
+            }
+            try {
+                wakeUp.tryAcquire(pause, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Delivers the next batch. Returns the number of events delivered, or -1 if one of them failed.
+     */
+    private int dispatch() {
+        List<OutboxEvent> batch = tx.execute(status ->
+                outboxRepository.findPending(maxAttempts, PageRequest.of(0, batchSize)));
+        if (batch.isEmpty()) {
+            lagMs = 0;
+            return 0;
+        }
+        lagMs = Math.max(0, Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        try {
+            deliver(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.warn("Outbox batch of {} events failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        int count = 0;
+        for (OutboxEvent event : batch) {
+            try {
+                deliver(List.of(event));
+                count++;
+            } catch (RuntimeException e) {
+                failures.increment();
+                recordFailure(event, e);
+                // Stop here: the events behind it wait, so each product's sales stay in order.
+                return -1;
+            }
+        }
+        return count;
+    }
+
+    private void deliver(List<OutboxEvent> events) {
+        tx.executeWithoutResult(status -> {
+            List<SaleCompletedEvent> sales = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                sales.add(parse(event));
+            }
+            for (SaleCompletedConsumer consumer : consumers) {
+                consumer.onSalesCompleted(sales);
+            }
+            outboxRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        delivered.increment(events.size());
+    }
+
+    private SaleCompletedEvent parse(OutboxEvent event) {
+        if (!TYPE.equals(event.getType())) {
+            throw new IllegalStateException("Unknown outbox event type: " + event.getType());
+        }
+        try {
+            return objectMapper.readValue(event.getPayload(), SaleCompletedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event " + event.getId(), e);
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException error) {
+        String message = String.valueOf(error.getMessage());
+        tx.executeWithoutResult(status -> outboxRepository.recordFailure(event.getId(),
+                message.length() > 500 ? message.substring(0, 500) : message));
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            setAside.increment();
+            logger.error("Outbox event {} set aside after {} failed attempts", event.getId(), maxAttempts, error);
+        } else {
+            logger.warn("Outbox event {} failed (attempt {} of {}): {}", event.getId(), event.getAttempts() + 1,
+                    maxAttempts, message);
+        }
+    }
+}
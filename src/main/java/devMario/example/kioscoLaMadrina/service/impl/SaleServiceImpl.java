@@ -1,25 +1,60 @@
 package devMario.example.kioscoLaMadrina.service.impl;
 
+import devMario.example.kioscoLaMadrina.dto.SaleBatchItemResultDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchResultDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SalePageDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
 import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleSearchCriteria;
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import devMario.example.kioscoLaMadrina.event.StockChangedEvent;
+import devMario.example.kioscoLaMadrina.exception.InsufficientStockException;
 import devMario.example.kioscoLaMadrina.model.*;
 import devMario.example.kioscoLaMadrina.repository.*;
+import devMario.example.kioscoLaMadrina.service.SaleOutcome;
 import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.SaleSubmission;
 import devMario.example.kioscoLaMadrina.mapper.SaleMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.List;
 import java.util.ArrayList;
 
+import static devMario.example.kioscoLaMadrina.repository.SaleSpecifications.*;
+
 @Service
 @Transactional
 public class SaleServiceImpl implements SaleService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateTime", "id");
 
     @Autowired
     private SaleRepository saleRepository;
@@ -29,30 +64,235 @@ public class SaleServiceImpl implements SaleService {
     private UserRepository userRepository;
     @Autowired
     private SaleMapper saleMapper;
+    @Autowired
+    private SaleOutbox saleOutbox;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private ShiftLedger shiftLedger;
+
+    private Timer checkoutTimer;
+    private Timer stockValidationTimer;
+    private Timer persistenceTimer;
+    private Timer mappingTimer;
+    private Counter insufficientStock;
+
+    @PostConstruct
+    void registerMeters() {
+        checkoutTimer = meterRegistry.timer("kiosco.checkout");
+        stockValidationTimer = meterRegistry.timer("kiosco.checkout.phase", "phase", "stock_validation");
+        persistenceTimer = meterRegistry.timer("kiosco.checkout.phase", "phase", "persistence");
+        mappingTimer = meterRegistry.timer("kiosco.checkout.phase", "phase", "mapping");
+        insufficientStock = meterRegistry.counter("kiosco.checkout.insufficient_stock");
+    }
 
     @Override
     public SaleResponseDTO createSale(SaleRequestDTO request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return checkoutTimer.record(() -> {
+            Timer.Sample phase = Timer.start(meterRegistry);
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            Map<Long, Integer> quantities = mergeQuantities(request);
+            Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            requireProducts(quantities.keySet(), products);
+
+            // Ascending id order keeps row locks acquired in the same order by every checkout (no deadlocks).
+            long catalogVersion = catalogVersions.current();
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (productRepository.decrementStock(entry.getKey(), entry.getValue(), catalogVersion) == 0) {
+                    Product product = products.get(entry.getKey());
+                    insufficientStock.increment();
+                    throw new InsufficientStockException(product.getId(), product.getName());
+                }
+            }
+            eventPublisher.publishEvent(new StockChangedEvent(stockLevels(quantities.keySet()), catalogVersion));
+            phase.stop(stockValidationTimer);
+
+            phase = Timer.start(meterRegistry);
+            Sale savedSale = saleRepository.save(buildSale(user, request, products));
+            SaleCompletedEvent completed = SaleCompletedEvent.of(savedSale, catalogVersion);
+            saleOutbox.append(List.of(completed));
+            eventPublisher.publishEvent(completed);
+            phase.stop(persistenceTimer);
+
+            phase = Timer.start(meterRegistry);
+            SaleResponseDTO response = saleMapper.toDTO(savedSale);
+            phase.stop(mappingTimer);
+            return response;
+        });
+    }
+
+    @Override
+    public List<SaleOutcome> createSales(List<SaleSubmission> submissions) {
+        if (submissions.isEmpty()) {
+            return List.of();
+        }
 
+        Set<String> usernames = new HashSet<>();
+        Set<Long> productIds = new TreeSet<>();
+        for (SaleSubmission submission : submissions) {
+            usernames.add(submission.username());
+            submission.request().items().forEach(item -> productIds.add(item.productId()));
+        }
+
+        Map<String, User> users = userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity()));
+        Set<String> references = submissions.stream()
+                .map(SaleSubmission::clientReference)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Sale> alreadyRecorded = references.isEmpty() ? Map.of()
+                : saleRepository.findByClientReferenceIn(references).stream()
+                        .collect(Collectors.toMap(Sale::getClientReference, Function.identity()));
+        // Lock the group's products once; each ticket is then checked against the stock left by the ones before it.
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Integer> remaining = new HashMap<>();
+        products.values().forEach(product -> remaining.put(product.getId(), product.getStockQuantity()));
+
+        List<SaleOutcome> outcomes = new ArrayList<>(Collections.nCopies(submissions.size(), null));
+        List<Sale> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        Map<Long, Integer> decrements = new TreeMap<>();
+        Set<String> seenReferences = new HashSet<>();
+
+        for (int i = 0; i < submissions.size(); i++) {
+            SaleSubmission submission = submissions.get(i);
+            String reference = submission.clientReference();
+            if (reference != null && alreadyRecorded.containsKey(reference)) {
+                outcomes.set(i, SaleOutcome.replay(saleMapper.toDTO(alreadyRecorded.get(reference))));
+                continue;
+            }
+            if (reference != null && !seenReferences.add(reference)) {
+                outcomes.set(i, SaleOutcome.failure(new RuntimeException("Duplicate client id in batch: " + reference)));
+                continue;
+            }
+            try {
+                User user = users.get(submission.username());
+                if (user == null) {
+                    throw new RuntimeException("User not found");
+                }
+                Map<Long, Integer> quantities = mergeQuantities(submission.request());
+                requireProducts(quantities.keySet(), products);
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    if (remaining.get(entry.getKey()) < entry.getValue()) {
+                        Product product = products.get(entry.getKey());
+                        insufficientStock.increment();
+                        throw new InsufficientStockException(product.getId(), product.getName());
+                    }
+                }
+
+                quantities.forEach((productId, quantity) -> {
+                    remaining.merge(productId, -quantity, Integer::sum);
+                    decrements.merge(productId, quantity, Integer::sum);
+                });
+                Sale sale = buildSale(user, submission.request(), products);
+                if (submission.dateTime() != null) {
+                    sale.setDateTime(submission.dateTime());
+                }
+                sale.setClientReference(reference);
+                accepted.add(sale);
+                acceptedPositions.add(i);
+            } catch (RuntimeException e) {
+                outcomes.set(i, SaleOutcome.failure(e));
+            }
+        }
+
+        // One update per product for the whole group; the rows are locked, so these cannot miss.
+        long catalogVersion = catalogVersions.current();
+        for (Map.Entry<Long, Integer> entry : decrements.entrySet()) {
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue(), catalogVersion) == 0) {
+                throw new IllegalStateException("Stock changed under lock for product: " + entry.getKey());
+            }
+        }
+        if (!decrements.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(stockLevels(decrements.keySet()), catalogVersion));
+        }
+
+        saleRepository.saveAll(accepted);
+        List<SaleCompletedEvent> completed = accepted.stream()
+                .map(sale -> SaleCompletedEvent.of(sale, catalogVersion))
+                .toList();
+        saleOutbox.append(completed);
+        completed.forEach(eventPublisher::publishEvent);
+
+        for (int k = 0; k < accepted.size(); k++) {
+            outcomes.set(acceptedPositions.get(k), SaleOutcome.success(saleMapper.toDTO(accepted.get(k))));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public SaleBatchResultDTO importOfflineSales(SaleBatchRequestDTO batch, String username) {
+        List<SaleSubmission> submissions = batch.sales().stream()
+                .map(sale -> new SaleSubmission(new SaleRequestDTO(sale.items()), username, sale.clientId(),
+                        sale.dateTime()))
+                .toList();
+        List<SaleOutcome> outcomes = createSales(submissions);
+
+        List<SaleBatchItemResultDTO> results = new ArrayList<>(outcomes.size());
+        int created = 0;
+        int duplicates = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            String clientId = batch.sales().get(i).clientId();
+            SaleOutcome outcome = outcomes.get(i);
+            if (!outcome.isSuccess()) {
+                results.add(new SaleBatchItemResultDTO(clientId, SaleBatchItemResultDTO.Status.REJECTED, null,
+                        outcome.error().getMessage()));
+            } else if (outcome.replayed()) {
+                duplicates++;
+                results.add(new SaleBatchItemResultDTO(clientId, SaleBatchItemResultDTO.Status.DUPLICATE,
+                        outcome.sale().id(), null));
+            } else {
+                created++;
+                results.add(new SaleBatchItemResultDTO(clientId, SaleBatchItemResultDTO.Status.CREATED,
+                        outcome.sale().id(), null));
+            }
+        }
+        return new SaleBatchResultDTO(created, duplicates, outcomes.size() - created - duplicates, results);
+    }
+
+    // Stock as this transaction leaves it; the rows are still locked, so no other checkout has changed it since.
+    private List<StockChangedEvent.Level> stockLevels(Collection<Long> productIds) {
+        return productRepository.findStockByIdIn(productIds).stream()
+                .map(row -> new StockChangedEvent.Level((Long) row[0], (Integer) row[1], (Long) row[2]))
+                .toList();
+    }
+
+    // Merges repeated cart lines so each product is checked and decremented once.
+    private Map<Long, Integer> mergeQuantities(SaleRequestDTO request) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (SaleItemRequestDTO item : request.items()) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void requireProducts(Collection<Long> productIds, Map<Long, Product> products) {
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        }
+    }
+
+    private Sale buildSale(User user, SaleRequestDTO request, Map<Long, Product> products) {
         Sale sale = new Sale();
         sale.setUser(user);
         sale.setDateTime(LocalDateTime.now());
+        sale.setShiftId(shiftLedger.join(user.getUsername()));
 
         List<SaleDetail> details = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (SaleItemRequestDTO item : request.items()) {
-            Product product = productRepository.findById(item.productId())
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + item.productId()));
-
-            if (product.getStockQuantity() < item.quantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
-            }
-
-            // Update Stock
-            product.setStockQuantity(product.getStockQuantity() - item.quantity());
-            productRepository.save(product);
+            Product product = products.get(item.productId());
 
             SaleDetail detail = new SaleDetail();
             detail.setSale(sale);
@@ -67,16 +307,61 @@ public class SaleServiceImpl implements SaleService {
 
         sale.setDetails(details);
         sale.setTotalAmount(totalAmount);
-
-        Sale savedSale = saleRepository.save(sale);
-        return saleMapper.toDTO(savedSale);
+        return sale;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<SaleResponseDTO> findAll() {
-        return saleRepository.findAll().stream()
+    public SalePageDTO findPage(SaleSearchCriteria criteria, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Long userId = null;
+        if (criteria.cashier() != null) {
+            User cashier = userRepository.findByUsername(criteria.cashier()).orElse(null);
+            if (cashier == null) {
+                return new SalePageDTO(List.of(), null);
+            }
+            userId = cashier.getId();
+        }
+
+        Specification<Sale> spec = Specification.where(from(criteria.from()))
+                .and(to(criteria.to()))
+                .and(soldBy(userId))
+                .and(containsProduct(criteria.productId()))
+                .and(minTotal(criteria.minTotal()));
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            spec = spec.and(before(LocalDateTime.parse(position[0]), Long.valueOf(position[1])));
+        }
+
+        // One row past the page tells us whether there is a next page without a count query.
+        List<Sale> sales = saleRepository.findBy(spec, q -> q.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+        boolean hasMore = sales.size() > pageSize;
+        if (hasMore) {
+            sales = sales.subList(0, pageSize);
+        }
+
+        // Users, details and products of the page are loaded in batches (hibernate.default_batch_fetch_size).
+        List<SaleResponseDTO> items = sales.stream()
                 .map(saleMapper::toDTO)
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(sales.get(sales.size() - 1)) : null;
+        return new SalePageDTO(items, nextCursor);
+    }
+
+    private String encodeCursor(Sale last) {
+        String position = last.getDateTime() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDateTime.parse(position[0]);
+            Long.valueOf(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 }
@@ -0,0 +1,271 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ShiftProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ShiftReportDTO;
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import devMario.example.kioscoLaMadrina.model.Shift;
+import devMario.example.kioscoLaMadrina.model.ShiftProductTotal;
+import devMario.example.kioscoLaMadrina.repository.SaleRepository;
+import devMario.example.kioscoLaMadrina.repository.ShiftRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running totals of the open shifts (at most one per cashier), kept in memory and updated as each sale commits,
+ * so reporting on or closing a shift never reads the sales table. The totals of shifts still open are rebuilt
+ * from their sales once, on startup.
+ * <p>
+ * A sale joins its cashier's open shift inside the checkout transaction ({@link #join}). Closing a shift stops
+ * new sales from joining and waits for the ones already joined to commit or roll back, so the closing report
+ * includes every sale stamped with the shift.
+ */
+@Component
+public class ShiftLedger implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(ShiftLedger.class);
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kiosco.app.checkoutTimeoutMs}")
+    private long closeTimeoutMs;
+
+    private final Map<String, OpenShift> byUsername = new ConcurrentHashMap<>();
+    private final Map<Long, OpenShift> byId = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            for (Shift shift : shiftRepository.findOpen()) {
+                OpenShift open = new OpenShift(shift.getId(), shift.getUser().getUsername(), shift.getOpenedAt());
+                byUsername.put(open.username, open);
+                byId.put(open.shiftId, open);
+            }
+            if (byId.isEmpty()) {
+                return;
+            }
+            for (Object[] row : saleRepository.sumByShift(byId.keySet())) {
+                OpenShift open = byId.get((Long) row[0]);
+                open.ticketCount = (Long) row[1];
+                open.revenue = (BigDecimal) row[2];
+            }
+            for (Object[] row : saleRepository.sumProductsByShift(byId.keySet())) {
+                byId.get((Long) row[0]).add((Long) row[1], (Long) row[2], (BigDecimal) row[3]);
+            }
+        });
+        logger.info("Shift ledger loaded: {} open shifts", byId.size());
+    }
+
+    public Optional<ShiftReportDTO> findOpen(String username) {
+        return Optional.ofNullable(byUsername.get(username)).map(open -> open.report(null));
+    }
+
+    public Optional<ShiftReportDTO> findOpen(Long shiftId) {
+        return Optional.ofNullable(byId.get(shiftId)).map(open -> open.report(null));
+    }
+
+    /**
+     * Starts tracking a shift just saved in the current transaction; it is dropped again if the transaction
+     * rolls back. Fails with 409 if the cashier already has an open shift.
+     */
+    public ShiftReportDTO open(Long shiftId, String username, LocalDateTime openedAt) {
+        OpenShift open = new OpenShift(shiftId, username, openedAt);
+        if (byUsername.putIfAbsent(username, open) != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A shift is already open for " + username);
+        }
+        byId.put(shiftId, open);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    forget(open);
+                }
+            }
+        });
+        return open.report(null);
+    }
+
+    /**
+     * Closes the cashier's open shift as part of the current transaction and returns its final totals. The shift
+     * is forgotten once the transaction commits and reopened if it rolls back.
+     */
+    public ShiftReportDTO close(String username, LocalDateTime closedAt) {
+        OpenShift open = byUsername.get(username);
+        if (open == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift for " + username);
+        }
+        if (!open.stop()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The shift is already being closed");
+        }
+        if (!open.awaitJoined(closeTimeoutMs)) {
+            open.reopen();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sales of this shift are still being recorded");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    forget(open);
+                } else {
+                    open.reopen();
+                }
+            }
+        });
+        return open.report(closedAt);
+    }
+
+    /**
+     * The cashier's open shift, for a sale recorded in the current transaction; null if none is open (or it is
+     * closing). The shift cannot finish closing until that transaction ends.
+     */
+    public Long join(String username) {
+        OpenShift open = byUsername.get(username);
+        if (open == null || !open.enter()) {
+            return null;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                open.exit();
+            }
+        });
+        return open.shiftId;
+    }
+
+    // After commit and ahead of join()'s synchronization (which is registered first and would otherwise run
+    // first), so a closing shift only stops waiting once the sale is in its totals.
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        OpenShift open = event.shiftId() != null ? byId.get(event.shiftId()) : null;
+        if (open != null) {
+            open.record(event);
+        }
+    }
+
+    private void forget(OpenShift open) {
+        byUsername.remove(open.username, open);
+        byId.remove(open.shiftId, open);
+    }
+
+    private final class OpenShift {
+        private final long shiftId;
+        private final String username;
+        private final LocalDateTime openedAt;
+        private long ticketCount;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private final Map<Long, ShiftProductTotal> products = new TreeMap<>();
+        private int inFlight;
+        private boolean closing;
+
+        OpenShift(long shiftId, String username, LocalDateTime openedAt) {
+            this.shiftId = shiftId;
+            this.username = username;
+            this.openedAt = openedAt;
+        }
+
+        synchronized boolean enter() {
+            if (closing) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void exit() {
+            inFlight--;
+            notifyAll();
+        }
+
+        synchronized void record(SaleCompletedEvent sale) {
+            ticketCount++;
+            revenue = revenue.add(sale.totalAmount());
+            for (SaleCompletedEvent.Line line : sale.lines()) {
+                add(line.productId(), line.quantity(), line.subtotal());
+            }
+        }
+
+        synchronized void add(Long productId, long units, BigDecimal lineRevenue) {
+            ShiftProductTotal total = products.computeIfAbsent(productId,
+                    id -> new ShiftProductTotal(shiftId, id, 0L, BigDecimal.ZERO));
+            total.setUnitsSold(total.getUnitsSold() + units);
+            total.setRevenue(total.getRevenue().add(lineRevenue));
+        }
+
+        // Stops sales from joining; false if another request is already closing the shift.
+        synchronized boolean stop() {
+            if (closing) {
+                return false;
+            }
+            closing = true;
+            return true;
+        }
+
+        // False if sales that joined the shift are still running after the timeout.
+        synchronized boolean awaitJoined(long timeoutMs) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            try {
+                while (inFlight > 0) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void reopen() {
+            closing = false;
+        }
+
+        synchronized ShiftReportDTO report(LocalDateTime closedAt) {
+            List<ShiftProductDTO> lines = new ArrayList<>(products.size());
+            long unitsSold = 0;
+            for (ShiftProductTotal total : products.values()) {
+                unitsSold += total.getUnitsSold();
+                String name = productIndex.findById(total.getProductId()).map(ProductDTO::name).orElse(null);
+                lines.add(new ShiftProductDTO(total.getProductId(), name, total.getUnitsSold(), total.getRevenue()));
+            }
+            return new ShiftReportDTO(shiftId, username, openedAt, closedAt, ticketCount, revenue, unitsSold, lines);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ShiftProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ShiftReportDTO;
+import devMario.example.kioscoLaMadrina.model.Shift;
+import devMario.example.kioscoLaMadrina.model.ShiftProductTotal;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ShiftProductTotalRepository;
+import devMario.example.kioscoLaMadrina.repository.ShiftRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.ShiftService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class ShiftServiceImpl implements ShiftService {
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ShiftProductTotalRepository productTotalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShiftLedger shiftLedger;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Override
+    public ShiftReportDTO open(String username) {
+        if (shiftLedger.findOpen(username).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A shift is already open for " + username);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Shift shift = shiftRepository.save(Shift.builder()
+                .user(user)
+                .openedAt(LocalDateTime.now())
+                .build());
+        return shiftLedger.open(shift.getId(), username, shift.getOpenedAt());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ShiftReportDTO getCurrent(String username) {
+        return shiftLedger.findOpen(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift for " + username));
+    }
+
+    // The report comes from the ledger's running totals; closing only writes them down.
+    @Override
+    public ShiftReportDTO close(String username) {
+        ShiftReportDTO report = shiftLedger.close(username, LocalDateTime.now());
+        Shift shift = shiftRepository.findById(report.shiftId())
+                .orElseThrow(() -> new RuntimeException("Shift not found"));
+        shift.setClosedAt(report.closedAt());
+        shift.setTicketCount(report.ticketCount());
+        shift.setRevenue(report.revenue());
+        shift.setUnitsSold(report.unitsSold());
+        productTotalRepository.saveAll(report.products().stream()
+                .map(line -> new ShiftProductTotal(report.shiftId(), line.productId(), line.unitsSold(), line.revenue()))
+                .toList());
+        return report;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShiftReportDTO findById(Long id) {
+        return shiftLedger.findOpen(id).orElseGet(() -> {
+            Shift shift = shiftRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shift not found"));
+            List<ShiftProductDTO> products = productTotalRepository.findByShiftIdOrderByProductId(id).stream()
+                    .map(total -> new ShiftProductDTO(total.getProductId(),
+                            productIndex.findById(total.getProductId()).map(ProductDTO::name).orElse(null),
+                            total.getUnitsSold(), total.getRevenue()))
+                    .toList();
+            return new ShiftReportDTO(shift.getId(), shift.getUser().getUsername(), shift.getOpenedAt(),
+                    shift.getClosedAt(), shift.getTicketCount(), shift.getRevenue(), shift.getUnitsSold(), products);
+        });
+    }
+}
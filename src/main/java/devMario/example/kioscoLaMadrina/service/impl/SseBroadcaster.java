@@ -0,0 +1,184 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared machinery of the Server-Sent Events feeds. A new subscriber first receives a {@code snapshot} event,
+ * then the changes published after it registered.
+ * <p>
+ * Publishing only marks keys as pending on each subscriber; repeated changes to a key are combined with
+ * {@link #merge}. Each subscriber has its own virtual thread that hands its pending changes to {@link #encode}
+ * and sends the result, so a slow client only delays itself, never the publisher or the other clients.
+ * Subclasses supply the snapshot and the encoding of changes into events.
+ *
+ * @param <K> what a change is about, e.g. a product id
+ * @param <V> what is remembered about a pending change
+ */
+public abstract class SseBroadcaster<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private final String name;
+    private final long streamTimeoutMs;
+    private final long heartbeatMs;
+    private final long maxLagNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param name            prefix of the sender threads' names
+     * @param streamTimeoutMs how long a client stays connected before it has to reconnect
+     * @param heartbeatMs     idle time after which a keep-alive comment is sent; 0 sends none
+     * @param maxLagMs        a client whose oldest pending change waits longer than this is disconnected, and
+     *                        reconnects from a fresh snapshot; 0 never disconnects
+     */
+    protected SseBroadcaster(String name, long streamTimeoutMs, long heartbeatMs, long maxLagMs) {
+        this.name = name;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+    }
+
+    /** The payload of the {@code snapshot} event. */
+    protected abstract Object snapshot();
+
+    /** The events that bring a client up to date with the given pending changes. */
+    protected abstract List<SseEventBuilder> encode(Map<K, V> changes);
+
+    /** Combines a change with one still pending for the same key. By default the newer one wins. */
+    protected V merge(V pending, V change) {
+        return change;
+    }
+
+    /** Called when a client is disconnected for falling more than {@code maxLagMs} behind. */
+    protected void onLagging() {
+    }
+
+    /**
+     * Registers a client. It is registered before its snapshot is read, so a change that the snapshot misses is
+     * still marked on it and sent afterwards.
+     */
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(name + "-" + sequence.incrementAndGet(), new SseEmitter(streamTimeoutMs));
+        subscribers.add(subscriber);
+        Thread.ofVirtual().name(subscriber.name).start(subscriber::run);
+        return subscriber.emitter;
+    }
+
+    protected void publish(Collection<K> keys, V change) {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (maxLagNanos > 0 && subscriber.lagNanos(now) > maxLagNanos) {
+                onLagging();
+                logger.warn("Stream subscriber {} is more than {} ms behind, disconnecting",
+                        subscriber.name, TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+                subscriber.close();
+                subscriber.emitter.complete();
+            } else {
+                subscriber.mark(keys, change);
+            }
+        }
+    }
+
+    protected int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Runs before the web server's graceful shutdown, which would otherwise wait for the open streams to end.
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private final class Subscriber {
+        private final String name;
+        private final SseEmitter emitter;
+        private final Map<K, V> pending = new ConcurrentHashMap<>();
+        private final Semaphore wakeUp = new Semaphore(0);
+        // System.nanoTime() of the oldest change not yet sent, 0 when there is none
+        private volatile long pendingSince;
+        private volatile boolean open = true;
+
+        private Subscriber(String name, SseEmitter emitter) {
+            this.name = name;
+            this.emitter = emitter;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        void mark(Collection<K> keys, V change) {
+            for (K key : keys) {
+                pending.merge(key, change, SseBroadcaster.this::merge);
+            }
+            if (pendingSince == 0) {
+                pendingSince = System.nanoTime();
+            }
+            wakeUp.release();
+        }
+
+        long lagNanos(long now) {
+            long since = pendingSince;
+            return since == 0 ? 0 : now - since;
+        }
+
+        void close() {
+            open = false;
+            subscribers.remove(this);
+            wakeUp.release();
+        }
+
+        void run() {
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(snapshot()));
+                while (open) {
+                    if (heartbeatMs <= 0) {
+                        wakeUp.acquire();
+                    } else if (!wakeUp.tryAcquire(heartbeatMs, TimeUnit.MILLISECONDS)) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        continue;
+                    }
+                    wakeUp.drainPermits();
+                    if (open && !pending.isEmpty()) {
+                        flush();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter.
+                close();
+            } catch (InterruptedException e) {
+                close();
+            }
+        }
+
+        // Sends the current state of every pending key; anything marked meanwhile waits for the next round.
+        private void flush() throws IOException {
+            pendingSince = 0;
+            Map<K, V> changes = new HashMap<>();
+            for (K key : pending.keySet()) {
+                changes.put(key, pending.remove(key));
+            }
+            for (SseEventBuilder event : encode(changes)) {
+                emitter.send(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.UserDTO;
+import devMario.example.kioscoLaMadrina.dto.UserUpdateDTO;
+import devMario.example.kioscoLaMadrina.event.AccountChangedEvent;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class UserServiceImpl implements UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDTO> findAll() {
+        return userRepository.findAll().stream()
+                .map(UserServiceImpl::toDTO)
+                .toList();
+    }
+
+    @Override
+    public UserDTO update(Long id, UserUpdateDTO update) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        boolean changed = false;
+        if (update.role() != null && update.role() != user.getRole()) {
+            user.setRole(update.role());
+            changed = true;
+        }
+        if (update.active() != null && update.active() != user.isActive()) {
+            user.setActive(update.active());
+            changed = true;
+        }
+
+        if (changed) {
+            // Invalidates every token issued before this change
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            eventPublisher.publishEvent(new AccountChangedEvent(user.getId(), user.getTokenVersion()));
+        }
+        return toDTO(userRepository.save(user));
+    }
+
+    private static UserDTO toDTO(User user) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getRole(), user.isActive());
+    }
+}
@@ -0,0 +1,126 @@
+package devMario.example.kioscoLaMadrina.benchmark;
+
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.security.jwt.AuthTokenFilter;
+import devMario.example.kioscoLaMadrina.security.jwt.JwtUtils;
+import devMario.example.kioscoLaMadrina.security.jwt.VerifiedTokenCache;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.security.Key;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request cost of JWT authentication: the previous filter path (key rebuilt and token parsed twice,
+ * user loaded from the database every time) against the current filter with and without a cache hit.
+ * Cache misses verify the token once and, for tokens with self-contained claims, skip the users query.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthFilterBenchmark {
+
+	private static final int ITERATIONS = 20_000;
+	private static final String USERNAME = "bench-auth";
+
+	@Value("${kiosco.app.jwtSecret}")
+	private String jwtSecret;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private AuthTokenFilter authTokenFilter;
+
+	@Autowired
+	private VerifiedTokenCache tokenCache;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void perRequestAuthenticationCost() throws Exception {
+		User user = userRepository.save(User.builder().username(USERNAME).password("unused").role(Role.EMPLOYEE).build());
+		UserDetailsImpl principal = UserDetailsImpl.build(user);
+		String token = jwtUtils.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+		Task previous = () -> previousFilterPath(token);
+		Task uncached = () -> {
+			tokenCache.invalidateAll();
+			filter(token);
+		};
+		Task cached = () -> filter(token);
+
+		// Warm-up
+		measure(previous, 2_000);
+		measure(uncached, 2_000);
+		measure(cached, 2_000);
+
+		double previousNs = measure(previous, ITERATIONS);
+		double uncachedNs = measure(uncached, ITERATIONS);
+		double cachedNs = measure(cached, ITERATIONS);
+
+		System.out.printf("%n[auth] %d requests each%n", ITERATIONS);
+		System.out.printf("[auth] previous path      : %9.1f us/request%n", previousNs / 1_000);
+		System.out.printf("[auth] cache miss         : %9.1f us/request (x%.1f)%n", uncachedNs / 1_000, previousNs / uncachedNs);
+		System.out.printf("[auth] verified-token hit : %9.1f us/request (x%.1f)%n", cachedNs / 1_000, previousNs / cachedNs);
+
+		assertThat(cachedNs).isLessThan(previousNs);
+	}
+
+	/** What AuthTokenFilter did before: validate, then parse again for the subject, then query the user. */
+	private void previousFilterPath(String token) {
+		Key validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+		Jwts.parserBuilder().setSigningKey(validateKey).build().parseClaimsJws(token);
+		Key subjectKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+		String username = Jwts.parserBuilder().setSigningKey(subjectKey).build()
+				.parseClaimsJws(token).getBody().getSubject();
+		UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+		SecurityContextHolder.clearContext();
+	}
+
+	private void filter(String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		request.addHeader("Authorization", "Bearer " + token);
+		authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+		SecurityContextHolder.clearContext();
+	}
+
+	private double measure(Task task, int iterations) throws Exception {
+		long started = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			task.run();
+		}
+		return (System.nanoTime() - started) / (double) iterations;
+	}
+
+	private interface Task {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,274 @@
+package devMario.example.kioscoLaMadrina.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.KioscoLaMadrinaApplication;
+import devMario.example.kioscoLaMadrina.model.Category;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.CategoryRepository;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.impl.ProductIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Release load test: starts the application on a random port against an embedded H2 database (or the
+ * database given with -Dspring.datasource.url=...), seeds a catalog and lets virtual cashiers work it over
+ * HTTP. Each cashier signs in, then repeatedly scans 1-4 barcodes, posts the sale and now and then reads
+ * its history. A few products have little stock so concurrent checkouts fight over the last units.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=CashierLoadBenchmark}; tune with -Dload.cashiers=...
+ * and -Dload.salesPerCashier=....
+ */
+@Tag("benchmark")
+class CashierLoadBenchmark {
+
+	private static final int CASHIERS = Integer.getInteger("load.cashiers", 24);
+	private static final int SALES_PER_CASHIER = Integer.getInteger("load.salesPerCashier", 40);
+	private static final int CATEGORIES = 8;
+	private static final int PRODUCTS_PER_CATEGORY = 50;
+	private static final int SCARCE_PRODUCTS = 10;
+	private static final int SCARCE_STOCK = 25;
+	private static final int HISTORY_EVERY = 5;
+	private static final String PASSWORD = "load-test-pass";
+
+	private final ObjectMapper json = new ObjectMapper();
+
+	/** Latencies (ns) and failures per operation. */
+	private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+	private final AtomicInteger salesRecorded = new AtomicInteger();
+	private final AtomicInteger outOfStock = new AtomicInteger();
+
+	private HttpClient http;
+	private String baseUrl;
+
+	@Test
+	void concurrentCashiers() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KioscoLaMadrinaApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "management.server.port=-1", "logging.level.root=WARN")
+				.run()) {
+			baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+			http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+			Map<Long, Integer> initialStock = new HashMap<>();
+			List<String> barcodes = seedCatalog(context, initialStock);
+			List<String> cashiers = seedCashiers(context);
+
+			CountDownLatch start = new CountDownLatch(1);
+			long started;
+			try (ExecutorService terminals = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (String cashier : cashiers) {
+					terminals.submit(() -> {
+						start.await();
+						work(cashier, barcodes);
+						return null;
+					});
+				}
+				started = System.nanoTime();
+				start.countDown();
+			}
+			double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+			int oversold = countOversold(context.getBean(JdbcTemplate.class), initialStock);
+			report(seconds, oversold);
+
+			assertThat(oversold).isZero();
+			assertThat(salesRecorded.get()).isPositive();
+		}
+	}
+
+	private void work(String cashier, List<String> barcodes) {
+		String token = signIn(cashier);
+		if (token == null) {
+			return;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int s = 0; s < SALES_PER_CASHIER; s++) {
+			StringBuilder items = new StringBuilder();
+			int lines = 1 + random.nextInt(4);
+			for (int l = 0; l < lines; l++) {
+				// One scan in ten hits the scarce products at the start of the catalog
+				String barcode = random.nextInt(10) == 0
+						? barcodes.get(random.nextInt(SCARCE_PRODUCTS))
+						: barcodes.get(random.nextInt(barcodes.size()));
+				JsonNode product = call("scan", get("/api/products/barcode/" + barcode, token));
+				if (product != null) {
+					items.append(items.isEmpty() ? "" : ",")
+							.append("{\"productId\":").append(product.get("id").asLong())
+							.append(",\"quantity\":").append(1 + random.nextInt(2)).append('}');
+				}
+			}
+			if (!items.isEmpty()) {
+				HttpRequest sale = HttpRequest.newBuilder(URI.create(baseUrl + "/api/sales"))
+						.header("Authorization", "Bearer " + token)
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString("{\"items\":[" + items + "]}"))
+						.build();
+				if (call("sale", sale) != null) {
+					salesRecorded.incrementAndGet();
+				}
+			}
+			if (s % HISTORY_EVERY == HISTORY_EVERY - 1) {
+				call("history", get("/api/sales?cashier=" + cashier + "&limit=20", token));
+			}
+		}
+	}
+
+	private String signIn(String cashier) {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"username\":\"" + cashier + "\",\"password\":\"" + PASSWORD + "\"}"))
+				.build();
+		JsonNode response = call("signin", request);
+		return response != null ? response.get("token").asText() : null;
+	}
+
+	private HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+	}
+
+	/**
+	 * Sends the request and records its latency; returns the parsed body, or null on failure. A 409 from
+	 * checkout is the expected out-of-stock rejection, not an error.
+	 */
+	private JsonNode call(String operation, HttpRequest request) {
+		long sent = System.nanoTime();
+		try {
+			HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+			latencies.computeIfAbsent(operation, o -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - sent);
+			if (response.statusCode() == 409 && operation.equals("sale")) {
+				outOfStock.incrementAndGet();
+				return null;
+			}
+			if (response.statusCode() >= 400) {
+				errors.computeIfAbsent(operation, o -> new AtomicInteger()).incrementAndGet();
+				return null;
+			}
+			return json.readTree(response.body());
+		} catch (Exception e) {
+			latencies.computeIfAbsent(operation, o -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - sent);
+			errors.computeIfAbsent(operation, o -> new AtomicInteger()).incrementAndGet();
+			return null;
+		}
+	}
+
+	private List<String> seedCatalog(ConfigurableApplicationContext context, Map<Long, Integer> initialStock) {
+		CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+		ProductRepository productRepository = context.getBean(ProductRepository.class);
+		List<String> barcodes = new ArrayList<>();
+		for (int c = 0; c < CATEGORIES; c++) {
+			Category category = categoryRepository.save(Category.builder().name("Load category " + c).build());
+			List<Product> products = new ArrayList<>();
+			for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+				int n = c * PRODUCTS_PER_CATEGORY + p;
+				products.add(Product.builder()
+						.barcode(String.format("7790000%06d", n))
+						.name("Load product " + n)
+						.price(new BigDecimal(100 + n % 900))
+						.stockQuantity(n < SCARCE_PRODUCTS ? SCARCE_STOCK : 100_000)
+						.category(category)
+						.build());
+			}
+			for (Product product : productRepository.saveAll(products)) {
+				initialStock.put(product.getId(), product.getStockQuantity());
+				barcodes.add(product.getBarcode());
+			}
+		}
+		Collections.sort(barcodes);
+		// The index was warmed before seeding
+		context.getBean(ProductIndex.class).reload();
+		return barcodes;
+	}
+
+	private List<String> seedCashiers(ConfigurableApplicationContext context) {
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+		List<String> cashiers = new ArrayList<>();
+		for (int i = 0; i < CASHIERS; i++) {
+			String username = "cashier" + i;
+			userRepository.save(User.builder().username(username).password(hash).role(Role.EMPLOYEE).build());
+			cashiers.add(username);
+		}
+		return cashiers;
+	}
+
+	/** Products whose stock went negative or whose sold units exceed what was on the shelf. */
+	private int countOversold(JdbcTemplate jdbc, Map<Long, Integer> initialStock) {
+		Map<Long, Integer> sold = new HashMap<>();
+		jdbc.query("SELECT product_id, SUM(quantity) FROM sale_details GROUP BY product_id",
+				rs -> {
+					sold.put(rs.getLong(1), rs.getInt(2));
+				});
+		Map<Long, Integer> stock = new HashMap<>();
+		jdbc.query("SELECT id, stock_quantity FROM products", rs -> {
+			stock.put(rs.getLong(1), rs.getInt(2));
+		});
+
+		int oversold = 0;
+		for (Map.Entry<Long, Integer> entry : initialStock.entrySet()) {
+			int units = sold.getOrDefault(entry.getKey(), 0);
+			int left = stock.get(entry.getKey());
+			if (left < 0 || units > entry.getValue() || left != entry.getValue() - units) {
+				oversold++;
+			}
+		}
+		return oversold;
+	}
+
+	private void report(double seconds, int oversold) {
+		System.out.printf("%n[load] %d cashiers x %d sales, %d products (%d scarce), %.1f s%n",
+				CASHIERS, SALES_PER_CASHIER, CATEGORIES * PRODUCTS_PER_CATEGORY, SCARCE_PRODUCTS, seconds);
+		System.out.printf("[load] sales recorded : %d (%.1f sales/s), rejected out of stock: %d, oversold products: %d%n",
+				salesRecorded.get(), salesRecorded.get() / seconds, outOfStock.get(), oversold);
+		for (String operation : List.of("signin", "scan", "sale", "history")) {
+			List<Long> sorted = new ArrayList<>(latencies.getOrDefault(operation, new ConcurrentLinkedQueue<>()));
+			Collections.sort(sorted);
+			int failed = errors.getOrDefault(operation, new AtomicInteger()).get();
+			System.out.printf("[load] %-8s n=%6d  p50 %8.1f ms  p99 %8.1f ms  errors %d (%.2f%%)%n",
+					operation, sorted.size(), percentile(sorted, 0.50), percentile(sorted, 0.99),
+					failed, sorted.isEmpty() ? 0.0 : 100.0 * failed / sorted.size());
+		}
+	}
+
+	private static double percentile(List<Long> sorted, double fraction) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int index = Math.min(sorted.size() - 1, (int) Math.ceil(fraction * sorted.size()) - 1);
+		return sorted.get(Math.max(0, index)) / 1_000_000.0;
+	}
+}
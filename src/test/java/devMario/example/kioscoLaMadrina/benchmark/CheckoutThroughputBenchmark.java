@@ -0,0 +1,116 @@
+package devMario.example.kioscoLaMadrina.benchmark;
+
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.impl.GroupCommitCheckout;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of one-transaction-per-sale checkout against group commit, with many terminals posting at once.
+ * Run with {@code mvn test -Pbenchmark}. Against H2 the numbers only show the relative trend; point
+ * spring.datasource.* at PostgreSQL (system properties) for figures that include real commit costs.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "kiosco.app.checkoutMode=group")
+@ActiveProfiles("test")
+class CheckoutThroughputBenchmark {
+
+	private static final int TERMINALS = 16;
+	private static final int SALES_PER_TERMINAL = 150;
+	private static final String CASHIER = "bench-cashier";
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private GroupCommitCheckout groupCommitCheckout;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void directVersusGroupCommit() throws Exception {
+		userRepository.save(User.builder().username(CASHIER).password("unused").role(Role.EMPLOYEE).build());
+		List<Long> productIds = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			productIds.add(productRepository.save(Product.builder()
+					.barcode("BENCH-CHK-" + i)
+					.name("Bench product " + i)
+					.price(new BigDecimal("250.00"))
+					.stockQuantity(1_000_000)
+					.build()).getId());
+		}
+
+		Consumer<SaleRequestDTO> direct = request -> saleService.createSale(request, CASHIER);
+		Consumer<SaleRequestDTO> grouped = request -> groupCommitCheckout.submit(request, CASHIER);
+
+		// Warm-up
+		run(direct, productIds, 20);
+		run(grouped, productIds, 20);
+
+		double directRate = run(direct, productIds, SALES_PER_TERMINAL);
+		double groupedRate = run(grouped, productIds, SALES_PER_TERMINAL);
+
+		System.out.printf("%n[checkout] %d terminals x %d sales%n", TERMINALS, SALES_PER_TERMINAL);
+		System.out.printf("[checkout] direct       : %8.1f sales/s%n", directRate);
+		System.out.printf("[checkout] group commit : %8.1f sales/s (x%.2f)%n", groupedRate, groupedRate / directRate);
+
+		assertThat(directRate).isPositive();
+		assertThat(groupedRate).isPositive();
+	}
+
+	private double run(Consumer<SaleRequestDTO> checkout, List<Long> productIds, int salesPerTerminal)
+			throws Exception {
+		ExecutorService terminals = Executors.newFixedThreadPool(TERMINALS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < TERMINALS; t++) {
+			int terminal = t;
+			futures.add(terminals.submit(() -> {
+				start.await();
+				for (int s = 0; s < salesPerTerminal; s++) {
+					Long first = productIds.get((terminal + s) % productIds.size());
+					Long second = productIds.get((terminal + s + 3) % productIds.size());
+					checkout.accept(new SaleRequestDTO(List.of(
+							new SaleItemRequestDTO(first, 1),
+							new SaleItemRequestDTO(second, 2))));
+				}
+				return null;
+			}));
+		}
+
+		long started = System.nanoTime();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - started;
+		terminals.shutdown();
+
+		return TERMINALS * salesPerTerminal / (elapsed / 1_000_000_000.0);
+	}
+}
@@ -0,0 +1,157 @@
+package devMario.example.kioscoLaMadrina.benchmark;
+
+import devMario.example.kioscoLaMadrina.KioscoLaMadrinaApplication;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.security.jwt.JwtUtils;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many concurrent clients against a real server (history reads plus checkouts) in three setups: the
+ * platform-thread Tomcat pool, virtual threads alone, and virtual threads behind the database bulkhead.
+ * The pool keeps its 5 connections; Hikari's connection-timeout is lowered to 2 s so starvation shows up
+ * as errors within the run. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadModeLoadBenchmark {
+
+	private static final int CLIENTS = 1_000;
+	private static final int REQUESTS_PER_CLIENT = 4;
+	private static final String CASHIER = "bench-load";
+
+	private record Result(String mode, double throughput, double p50Ms, double p99Ms, int errors) {
+	}
+
+	@Test
+	void platformVersusVirtualThreads() throws Exception {
+		List<Result> results = new ArrayList<>();
+		results.add(run("platform threads", "spring.threads.virtual.enabled=false", "kiosco.app.dbBulkheadEnabled=false"));
+		results.add(run("virtual threads", "spring.threads.virtual.enabled=true", "kiosco.app.dbBulkheadEnabled=false"));
+		results.add(run("virtual + bulkhead", "spring.threads.virtual.enabled=true", "kiosco.app.dbBulkheadEnabled=true"));
+
+		System.out.printf("%n[load] %d clients x %d requests (3 history reads : 1 checkout), 5 connections%n",
+				CLIENTS, REQUESTS_PER_CLIENT);
+		for (Result result : results) {
+			System.out.printf("[load] %-20s: %8.1f req/s  p50 %7.1f ms  p99 %8.1f ms  errors %d%n",
+					result.mode(), result.throughput(), result.p50Ms(), result.p99Ms(), result.errors());
+		}
+
+		assertThat(results).allSatisfy(result -> assertThat(result.throughput()).isPositive());
+	}
+
+	private Result run(String mode, String... properties) throws Exception {
+		String database = "load_" + mode.replaceAll("[^a-z]", "_");
+		List<String> all = new ArrayList<>(List.of(
+				"server.port=0",
+				"management.server.port=-1",
+				"logging.level.root=WARN",
+				"spring.datasource.hikari.connection-timeout=2000",
+				"spring.datasource.url=jdbc:h2:mem:" + database
+						+ ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"));
+		all.addAll(List.of(properties));
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KioscoLaMadrinaApplication.class)
+				.profiles("test")
+				.properties(all.toArray(String[]::new))
+				.run()) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			User user = context.getBean(UserRepository.class)
+					.save(User.builder().username(CASHIER).password("unused").role(Role.EMPLOYEE).build());
+			Long productId = context.getBean(ProductRepository.class).save(Product.builder()
+					.barcode("LOAD-1")
+					.name("Load product")
+					.price(new BigDecimal("100.00"))
+					.stockQuantity(1_000_000)
+					.build()).getId();
+			UserDetailsImpl principal = UserDetailsImpl.build(user);
+			String token = context.getBean(JwtUtils.class).generateJwtToken(
+					new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+			// Warm-up
+			drive("warm-up", port, token, productId, 50);
+			return drive(mode, port, token, productId, CLIENTS);
+		}
+	}
+
+	private Result drive(String mode, int port, String token, Long productId, int clients) throws Exception {
+		HttpClient http = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(30))
+				.build();
+		HttpRequest history = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sales?limit=20"))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+		HttpRequest checkout = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sales"))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"items\":[{\"productId\":" + productId + ",\"quantity\":1}]}"))
+				.build();
+
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		AtomicInteger errors = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		long started;
+		try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < clients; c++) {
+				clientThreads.submit(() -> {
+					start.await();
+					for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+						HttpRequest request = r == REQUESTS_PER_CLIENT - 1 ? checkout : history;
+						long sent = System.nanoTime();
+						try {
+							HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() >= 400) {
+								errors.incrementAndGet();
+							}
+						} catch (Exception e) {
+							errors.incrementAndGet();
+						}
+						latencies.add(System.nanoTime() - sent);
+					}
+					return null;
+				});
+			}
+			started = System.nanoTime();
+			start.countDown();
+		}
+		long elapsed = System.nanoTime() - started;
+
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		return new Result(mode, sorted.size() / (elapsed / 1_000_000_000.0),
+				percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get());
+	}
+
+	private static double percentile(List<Long> sorted, double fraction) {
+		int index = Math.min(sorted.size() - 1, (int) Math.ceil(fraction * sorted.size()) - 1);
+		return sorted.get(Math.max(0, index)) / 1_000_000.0;
+	}
+}
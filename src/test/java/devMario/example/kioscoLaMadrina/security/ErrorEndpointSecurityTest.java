@@ -0,0 +1,78 @@
+package devMario.example.kioscoLaMadrina.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.RequestDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * {@code /error} is open so error dispatches (which carry no token) keep their real status. Opening it must not
+ * let an anonymous caller read anything beyond the status itself.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ErrorEndpointSecurityTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	// Built on the shared test context; @AutoConfigureMockMvc would start a second context on the same H2 database
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void anonymousErrorDispatchExposesOnlyTheStatus() throws Exception {
+		String body = mockMvc.perform(get("/error")
+						.accept(MediaType.APPLICATION_JSON)
+						.requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 500)
+						.requestAttr(RequestDispatcher.ERROR_REQUEST_URI, "/api/sales")
+						.requestAttr(RequestDispatcher.ERROR_MESSAGE, "jdbc:postgresql://db-secret:5432/kiosco")
+						.requestAttr(RequestDispatcher.ERROR_EXCEPTION,
+								new IllegalStateException("jdbc:postgresql://db-secret:5432/kiosco")))
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode error = objectMapper.readTree(body);
+		assertThat(error.get("status").asInt()).isEqualTo(500);
+		assertThat(error.fieldNames()).toIterable()
+				.containsExactlyInAnyOrder("timestamp", "status", "error", "path");
+		assertThat(body).doesNotContain("db-secret").doesNotContain("IllegalStateException");
+	}
+
+	@Test
+	void clientErrorsKeepTheirMessage() throws Exception {
+		String body = mockMvc.perform(get("/error")
+						.accept(MediaType.APPLICATION_JSON)
+						.requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 409)
+						.requestAttr(RequestDispatcher.ERROR_REQUEST_URI, "/api/sales")
+						.requestAttr(RequestDispatcher.ERROR_MESSAGE, "Insufficient stock"))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(objectMapper.readTree(body).get("message").asText()).isEqualTo("Insufficient stock");
+		assertThat(body).doesNotContain("trace").doesNotContain("exception");
+	}
+
+	@Test
+	void openingErrorDoesNotOpenTheApi() throws Exception {
+		int status = mockMvc.perform(get("/api/sales")).andReturn().getResponse().getStatus();
+		assertThat(status).isEqualTo(401);
+	}
+}
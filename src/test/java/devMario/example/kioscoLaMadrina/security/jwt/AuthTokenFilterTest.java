@@ -0,0 +1,121 @@
+package devMario.example.kioscoLaMadrina.security.jwt;
+
+import devMario.example.kioscoLaMadrina.dto.UserUpdateDTO;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.security.services.UserDetailsImpl;
+import devMario.example.kioscoLaMadrina.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthTokenFilterTest {
+
+	@Autowired
+	private AuthTokenFilter authTokenFilter;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private VerifiedTokenCache tokenCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserService userService;
+
+	private final List<User> users = new ArrayList<>();
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+		// The context and its database are shared with the rest of the suite
+		userRepository.deleteAll(users);
+	}
+
+	@Test
+	void verifiedTokenIsCachedAndServedFromTheCache() throws Exception {
+		String token = tokenFor("auth-cached");
+
+		Authentication first = filter(token);
+		assertThat(first).isNotNull();
+		UserDetails cached = tokenCache.get(token);
+		assertThat(cached).isNotNull();
+
+		// A cache hit returns the same principal without verifying the token again
+		Authentication second = filter(token);
+		assertThat(second.getPrincipal()).isSameAs(cached);
+	}
+
+	@Test
+	void changingRoleOrDisablingRevokesTokensIssuedBefore() throws Exception {
+		String token = tokenFor("auth-revoked");
+		assertThat(filter(token)).isNotNull();
+		Long userId = userRepository.findByUsername("auth-revoked").orElseThrow().getId();
+
+		userService.update(userId, new UserUpdateDTO(Role.ADMIN, null));
+
+		// Cached and still within its expiry, but its account version is outdated
+		assertThat(filter(token)).isNull();
+		assertThat(tokenCache.get(token)).isNull();
+
+		String renewed = tokenFor(userRepository.findByUsername("auth-revoked").orElseThrow());
+		assertThat(filter(renewed).getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN");
+
+		userService.update(userId, new UserUpdateDTO(null, false));
+		assertThat(filter(renewed)).isNull();
+	}
+
+	@Test
+	void tamperedTokenIsRejected() throws Exception {
+		String token = tokenFor("auth-tampered");
+		String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+		assertThat(filter(tampered)).isNull();
+		assertThat(tokenCache.get(tampered)).isNull();
+	}
+
+	private String tokenFor(String username) {
+		User user = userRepository.save(User.builder()
+				.username(username)
+				.password("unused")
+				.role(Role.EMPLOYEE)
+				.build());
+		users.add(user);
+		return tokenFor(user);
+	}
+
+	private String tokenFor(User user) {
+		UserDetailsImpl principal = UserDetailsImpl.build(user);
+		return jwtUtils.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private Authentication filter(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		request.addHeader("Authorization", "Bearer " + token);
+		authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}
@@ -0,0 +1,78 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductChangesDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogVersionsTest {
+
+	@Autowired
+	private CatalogVersions catalogVersions;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void versionsAreNotReusedAfterRestartWhenRowsKeepAnOlderOne() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		long older = tx.execute(status -> catalogVersions.current());
+		long newer = tx.execute(status -> catalogVersions.current());
+		assertThat(newer).isGreaterThan(older);
+		// The transaction that allocated first commits last, leaving the row at the older version
+		productRepository.save(Product.builder()
+				.barcode("VERSION-001")
+				.name("Yerba")
+				.price(new BigDecimal("900.00"))
+				.stockQuantity(5)
+				.version(older)
+				.build());
+
+		CatalogVersions restarted = new CatalogVersions(jdbcTemplate, entityManagerFactory);
+		restarted.afterPropertiesSet();
+		restarted.advanceTo(productRepository.findMaxVersion());
+
+		long next = tx.execute(status -> restarted.current());
+		assertThat(next).isGreaterThan(newer);
+	}
+
+	@Test
+	void changesSinceReportedVersionIncludeEveryLaterChange() {
+		long since = productService.findChangesSince(0).version();
+		ProductDTO created = productService.create(new ProductDTO(null, "VERSION-002", "Mate cocido",
+				new BigDecimal("700.00"), 12, null, null, true, null, null));
+
+		ProductChangesDTO changes = productService.findChangesSince(since);
+		assertThat(changes.version()).isGreaterThanOrEqualTo(created.version());
+		assertThat(changes.updated()).extracting(ProductDTO::barcode).contains("VERSION-002");
+		assertThat(productService.findChangesSince(changes.version()).updated())
+				.extracting(ProductDTO::barcode).doesNotContain("VERSION-002");
+	}
+}
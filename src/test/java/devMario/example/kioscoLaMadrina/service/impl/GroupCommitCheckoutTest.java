@@ -0,0 +1,121 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.exception.CheckoutOutcomeUnknownException;
+import devMario.example.kioscoLaMadrina.service.SaleOutcome;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.SaleSubmission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupCommitCheckoutTest {
+
+	private final SaleService saleService = mock(SaleService.class);
+	private final GroupCommitCheckout checkout = new GroupCommitCheckout();
+	private final Queue<SaleRequestDTO> recorded = new ConcurrentLinkedQueue<>();
+	private final CountDownLatch writing = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@BeforeEach
+	void setUp() {
+		// The first group blocks in the database until the test releases it
+		when(saleService.createSales(anyList())).thenAnswer(invocation -> {
+			List<SaleSubmission> group = invocation.getArgument(0);
+			writing.countDown();
+			release.await();
+			return group.stream().map(submission -> {
+				recorded.add(submission.request());
+				return SaleOutcome.success(new SaleResponseDTO((long) recorded.size(), LocalDateTime.now(),
+						BigDecimal.TEN, submission.username(), List.of()));
+			}).toList();
+		});
+		ReflectionTestUtils.setField(checkout, "saleService", saleService);
+		ReflectionTestUtils.setField(checkout, "maxGroupSize", 16);
+		ReflectionTestUtils.setField(checkout, "maxWaitMs", 1L);
+		ReflectionTestUtils.setField(checkout, "queueCapacity", 16);
+		ReflectionTestUtils.setField(checkout, "timeoutMs", 200L);
+		checkout.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		release.countDown();
+		checkout.stop();
+	}
+
+	@Test
+	void timedOutSalesAreWithdrawnWhileQueuedAndReportedUnknownOnceTaken() throws Exception {
+		SaleRequestDTO taken = request(1L);
+		SaleRequestDTO queued = request(2L);
+		CompletableFuture<Throwable> takenCaller = CompletableFuture.supplyAsync(
+				() -> catchThrowable(() -> checkout.submit(taken, "group-cashier")));
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Throwable withdrawn = catchThrowable(() -> checkout.submit(queued, "group-cashier"));
+		assertThat(withdrawn).isInstanceOfSatisfying(ResponseStatusException.class,
+				e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+		Throwable unknown = takenCaller.get(5, TimeUnit.SECONDS);
+		assertThat(unknown).isInstanceOf(CheckoutOutcomeUnknownException.class);
+		release.countDown();
+		SaleResponseDTO sale = ((CheckoutOutcomeUnknownException) unknown).getOutcome().get(5, TimeUnit.SECONDS);
+		assertThat(sale.username()).isEqualTo("group-cashier");
+
+		assertThat(checkout.submit(request(3L), "group-cashier")).isNotNull();
+		assertThat(recorded).containsExactly(taken, request(3L));
+	}
+
+	@Test
+	void stopRecordsQueuedSalesWithoutInterruptingTheGroupInProgress() throws Exception {
+		ReflectionTestUtils.setField(checkout, "timeoutMs", 5000L);
+		CompletableFuture<SaleResponseDTO> inProgress = CompletableFuture.supplyAsync(
+				() -> checkout.submit(request(1L), "group-cashier"));
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<SaleResponseDTO> queued = CompletableFuture.supplyAsync(
+				() -> checkout.submit(request(2L), "group-cashier"));
+		Queue<?> queue = (Queue<?>) ReflectionTestUtils.getField(checkout, "queue");
+		while (queue.isEmpty()) {
+			Thread.sleep(5);
+		}
+
+		CompletableFuture<Void> stopping = CompletableFuture.runAsync(() -> {
+			try {
+				checkout.stop();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Thread.sleep(50);
+		release.countDown();
+		stopping.get(5, TimeUnit.SECONDS);
+
+		assertThat(inProgress.get(5, TimeUnit.SECONDS)).isNotNull();
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+		assertThat(recorded).containsExactly(request(1L), request(2L));
+	}
+
+	private static SaleRequestDTO request(Long productId) {
+		return new SaleRequestDTO(List.of(new SaleItemRequestDTO(productId, 1)));
+	}
+}
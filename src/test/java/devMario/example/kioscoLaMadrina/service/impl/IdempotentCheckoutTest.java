@@ -0,0 +1,80 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.exception.CheckoutOutcomeUnknownException;
+import devMario.example.kioscoLaMadrina.exception.InsufficientStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentCheckoutTest {
+
+	private final IdempotentCheckout checkout = new IdempotentCheckout(60_000, 100, 2_000, new SimpleMeterRegistry());
+	private final SaleRequestDTO request = new SaleRequestDTO(List.of(new SaleItemRequestDTO(1L, 2)));
+	private final SaleResponseDTO sale = new SaleResponseDTO(7L, LocalDateTime.now(), BigDecimal.TEN, "cashier",
+			List.of());
+	private final AtomicInteger checkouts = new AtomicInteger();
+
+	@Test
+	void failedCheckoutIsForgottenSoTheRetryChecksOutAgain() {
+		assertThatThrownBy(() -> checkout.submit("key-1", "cashier", request, () -> {
+			checkouts.incrementAndGet();
+			throw new InsufficientStockException(1L, "Alfajor");
+		})).isInstanceOf(InsufficientStockException.class);
+
+		SaleResponseDTO retried = checkout.submit("key-1", "cashier", request, () -> {
+			checkouts.incrementAndGet();
+			return sale;
+		});
+
+		assertThat(retried).isEqualTo(sale);
+		assertThat(checkouts).hasValue(2);
+	}
+
+	@Test
+	void retryOfAnUnknownOutcomeWaitsForTheSameSale() {
+		CompletableFuture<SaleResponseDTO> stillRecording = new CompletableFuture<>();
+		assertThatThrownBy(() -> checkout.submit("key-2", "cashier", request, () -> {
+			checkouts.incrementAndGet();
+			throw new CheckoutOutcomeUnknownException(stillRecording);
+		})).isInstanceOf(CheckoutOutcomeUnknownException.class);
+
+		CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)
+				.execute(() -> stillRecording.complete(sale));
+		SaleResponseDTO retried = checkout.submit("key-2", "cashier", request, () -> {
+			checkouts.incrementAndGet();
+			return sale;
+		});
+
+		assertThat(retried).isEqualTo(sale);
+		assertThat(checkouts).hasValue(1);
+	}
+
+	@Test
+	void unknownOutcomeThatFailsIsForgottenOnceKnown() {
+		CompletableFuture<SaleResponseDTO> stillRecording = new CompletableFuture<>();
+		assertThatThrownBy(() -> checkout.submit("key-3", "cashier", request, () -> {
+			throw new CheckoutOutcomeUnknownException(stillRecording);
+		})).isInstanceOf(CheckoutOutcomeUnknownException.class);
+		stillRecording.completeExceptionally(new InsufficientStockException(1L, "Alfajor"));
+
+		SaleResponseDTO retried = checkout.submit("key-3", "cashier", request, () -> {
+			checkouts.incrementAndGet();
+			return sale;
+		});
+
+		assertThat(retried).isEqualTo(sale);
+		assertThat(checkouts).hasValue(1);
+	}
+}
@@ -0,0 +1,112 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.LowStockProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.event.LowStockChangedEvent;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LowStockNotifierTest {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	// Built on the shared test context; @AutoConfigureMockMvc would start a second context on the same H2 database
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void sendsSnapshotThenLowAndClearedEvents() throws Exception {
+		userRepository.save(User.builder().username("low-stock-cashier").password("unused").role(Role.EMPLOYEE).build());
+		ProductDTO created = productService.create(new ProductDTO(null, "LOWSTOCK-001", "Yerba", new BigDecimal("900.00"),
+				10, null, null, true, 5, null));
+
+		MockHttpServletResponse stream = subscribe();
+		awaitContent(stream, content -> content.contains("event:snapshot"));
+
+		saleService.createSale(new SaleRequestDTO(List.of(new SaleItemRequestDTO(created.id(), 6))),
+				"low-stock-cashier");
+		awaitContent(stream, content -> content.contains("event:low") && content.contains("LOWSTOCK-001"));
+
+		productService.update(created.id(), productService.findById(created.id()).withStockQuantity(50));
+		awaitContent(stream, content -> content.contains("event:cleared"));
+	}
+
+	@Test
+	void burstLargerThanAnyQueueReachesEverySubscriber() throws Exception {
+		MockHttpServletResponse first = subscribe();
+		MockHttpServletResponse second = subscribe();
+		awaitContent(first, content -> content.contains("event:snapshot"));
+		awaitContent(second, content -> content.contains("event:snapshot"));
+
+		// Far more changes than the old shared 1024-slot queue held; none may be lost
+		for (long id = 1; id <= 5_000; id++) {
+			events.publishEvent(new LowStockChangedEvent(
+					new LowStockProductDTO(-id, "BURST-" + id + ";", "Burst", 0, 5, null, null), false));
+		}
+
+		awaitContent(first, content -> content.contains("BURST-1;") && content.contains("BURST-5000;"));
+		awaitContent(second, content -> content.contains("BURST-1;") && content.contains("BURST-5000;"));
+	}
+
+	private MockHttpServletResponse subscribe() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/products/low-stock/stream")
+						.with(user("low-stock-admin").authorities(new SimpleGrantedAuthority("ADMIN"))))
+				.andReturn();
+		assertThat(result.getRequest().isAsyncStarted()).isTrue();
+		return result.getResponse();
+	}
+
+	private static void awaitContent(MockHttpServletResponse stream, Predicate<String> condition) throws Exception {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.test(stream.getContentAsString())) {
+			assertThat(System.currentTimeMillis()).as("stream content: %s", stream.getContentAsString())
+					.isLessThan(deadline);
+			Thread.sleep(20);
+		}
+	}
+}
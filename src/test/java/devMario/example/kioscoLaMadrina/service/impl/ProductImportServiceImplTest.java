@@ -0,0 +1,91 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ImportFormat;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductImportErrorDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductImportResultDTO;
+import devMario.example.kioscoLaMadrina.service.ProductImportService;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceImplTest {
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductIndex productIndex;
+
+	@Test
+	void csvImportCreatesUpdatesAndReportsInvalidRows() throws IOException {
+		productService.create(new ProductDTO(null, "IMPORT-001", "Alfajor", new BigDecimal("300.00"), 5, null, null,
+				true, null, null));
+		String csv = """
+				\uFEFFBarcode,name,price,stockQuantity,active
+				IMPORT-001,"Alfajor \"\"triple\"\"",350.50,40,true
+				IMPORT-002,"Galletitas, surtidas",200,12,
+				IMPORT-003,Sin precio,,3,
+				IMPORT-004,"Pan
+				lactal",100,1,false
+				IMPORT-005,Precio malo,abc,1,
+				IMPORT-006,Campos de menos,100
+				""";
+
+		ProductImportResultDTO result = productImportService.importProducts(ImportFormat.CSV, stream(csv));
+
+		assertThat(result.created()).isEqualTo(2);
+		assertThat(result.updated()).isEqualTo(1);
+		assertThat(result.rejected()).isEqualTo(3);
+		assertThat(result.errors()).extracting(ProductImportErrorDTO::line).containsExactly(4L, 7L, 8L);
+		assertThat(result.errors().get(0).error()).isEqualTo("price must be greater than 0");
+
+		ProductDTO updated = productIndex.findByBarcode("IMPORT-001").orElseThrow();
+		assertThat(updated.name()).isEqualTo("Alfajor \"triple\"");
+		assertThat(updated.stockQuantity()).isEqualTo(40);
+		assertThat(productIndex.findByBarcode("IMPORT-002").orElseThrow().name()).isEqualTo("Galletitas, surtidas");
+		ProductDTO multiline = productIndex.findByBarcode("IMPORT-004").orElseThrow();
+		assertThat(multiline.name()).isEqualTo("Pan\nlactal");
+		assertThat(multiline.active()).isFalse();
+	}
+
+	@Test
+	void ndjsonImportSkipsLinesThatAreNotProducts() throws IOException {
+		String ndjson = """
+				{"barcode":"IMPORT-101","name":"Yerba","price":"1200.00","stockQuantity":8,"reorderThreshold":2}
+
+				{"barcode":"IMPORT-102","name":
+				["not","an","object"]
+				{"barcode":"IMPORT-103","name":"Azucar","price":900,"stockQuantity":-1}
+				""";
+
+		ProductImportResultDTO result = productImportService.importProducts(ImportFormat.NDJSON, stream(ndjson));
+
+		assertThat(result.created()).isEqualTo(1);
+		assertThat(result.rejected()).isEqualTo(3);
+		assertThat(result.errors()).extracting(ProductImportErrorDTO::line).containsExactly(3L, 4L, 5L);
+		assertThat(result.errors().get(2).error()).isEqualTo("stockQuantity must be 0 or more");
+		ProductDTO yerba = productIndex.findByBarcode("IMPORT-101").orElseThrow();
+		assertThat(yerba.price()).isEqualByComparingTo("1200.00");
+		assertThat(yerba.reorderThreshold()).isEqualTo(2);
+	}
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,126 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.event.ProductChangedEvent;
+import devMario.example.kioscoLaMadrina.event.StockChangedEvent;
+import devMario.example.kioscoLaMadrina.exception.InsufficientStockException;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductIndexTest {
+
+	@Autowired
+	private ProductIndex productIndex;
+
+	@Autowired
+	private ProductSearch productSearch;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void lateEventsDoNotOverwriteFieldsSetByLaterRevisions() {
+		ProductDTO created = productService.create(product("INDEX-001", "Chicle", 10));
+		Long id = created.id();
+
+		productIndex.onProductChanged(ProductChangedEvent.saved(created.withStockQuantity(50), 2));
+		// A sale that committed before the update, applied after it
+		productIndex.onStockChanged(new StockChangedEvent(List.of(new StockChangedEvent.Level(id, 7, 1)), 0));
+		assertThat(productIndex.findById(id)).get().extracting(ProductDTO::stockQuantity).isEqualTo(50);
+
+		productIndex.onStockChanged(new StockChangedEvent(List.of(new StockChangedEvent.Level(id, 45, 4)), 0));
+		// An update that committed before that sale: its name is newer than the index's, its stock is not
+		ProductDTO renamed = new ProductDTO(id, "INDEX-001-B", "Chicle menta", created.price(), 99, null, null,
+				true, null, created.version());
+		productIndex.onProductChanged(ProductChangedEvent.saved(renamed, 3));
+
+		ProductDTO indexed = productIndex.findById(id).orElseThrow();
+		assertThat(indexed.name()).isEqualTo("Chicle menta");
+		assertThat(indexed.stockQuantity()).isEqualTo(45);
+		assertThat(productIndex.findByBarcode("INDEX-001")).isEmpty();
+		assertThat(productIndex.findByBarcode("INDEX-001-B")).get().extracting(ProductDTO::id).isEqualTo(id);
+		assertThat(productSearch.search("menta", null, null, 0, 10).items())
+				.extracting(ProductDTO::id).contains(id);
+	}
+
+	@Test
+	void indexMatchesDatabaseAfterConcurrentSalesAndUpdates() throws Exception {
+		userRepository.save(User.builder()
+				.username("index-cashier")
+				.password("unused")
+				.role(Role.EMPLOYEE)
+				.build());
+		ProductDTO created = productService.create(product("INDEX-002", "Caramelo", 200));
+		Long id = created.id();
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(5);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int c = 0; c < 4; c++) {
+			workers.add(pool.submit(() -> {
+				start.await();
+				for (int s = 0; s < 20; s++) {
+					try {
+						saleService.createSale(new SaleRequestDTO(List.of(new SaleItemRequestDTO(id, 1))),
+								"index-cashier");
+					} catch (InsufficientStockException e) {
+						// Stock was reset below what this sale needs
+					}
+				}
+				return null;
+			}));
+		}
+		workers.add(pool.submit(() -> {
+			start.await();
+			for (int u = 0; u < 10; u++) {
+				ProductDTO current = productIndex.findById(id).orElseThrow();
+				productService.update(id, current.withStockQuantity(100 + u));
+			}
+			return null;
+		}));
+
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+
+		int stock = productRepository.findById(id).orElseThrow().getStockQuantity();
+		assertThat(productIndex.findById(id)).get().extracting(ProductDTO::stockQuantity).isEqualTo(stock);
+	}
+
+	private static ProductDTO product(String barcode, String name, int stock) {
+		return new ProductDTO(null, barcode, name, new BigDecimal("150.00"), stock, null, null, true, null, null);
+	}
+}
@@ -0,0 +1,120 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.AdjustmentType;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductAdjustmentResultDTO;
+import devMario.example.kioscoLaMadrina.dto.ProductDTO;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceImplAdjustTest {
+
+	private static final String ADMIN = "adjust-admin";
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductIndex productIndex;
+
+	private final List<Long> created = new ArrayList<>();
+
+	@AfterEach
+	void removeProducts() {
+		// The context and its database are shared with the rest of the suite
+		created.forEach(productService::delete);
+	}
+
+	@Test
+	void dryRunCountsWithoutChangingAndTheRealRunUpdatesDatabaseAndIndex() {
+		ProductDTO soda = create(product("ADJ-001", "Soda ADJPCT", "100.00", 10));
+		ProductDTO gum = create(product("ADJ-002", "Chicle ADJPCT", "0.99", 10));
+		ProductAdjustmentRequestDTO raise = new ProductAdjustmentRequestDTO(null, "adjpct", null,
+				AdjustmentType.PRICE_PERCENT, new BigDecimal("10"));
+
+		ProductAdjustmentResultDTO preview = productService.adjust(raise, true, ADMIN);
+		assertThat(preview).isEqualTo(new ProductAdjustmentResultDTO(true, 2, 0, 0));
+		assertThat(productService.findById(soda.id()).price()).isEqualByComparingTo("100.00");
+
+		ProductAdjustmentResultDTO applied = productService.adjust(raise, false, ADMIN);
+		assertThat(applied).isEqualTo(new ProductAdjustmentResultDTO(false, 2, 0, 2));
+		assertThat(productService.findById(soda.id()).price()).isEqualByComparingTo("110.00");
+		// 0.99 * 1.10 = 1.089, rounded to cents
+		assertThat(productService.findById(gum.id()).price()).isEqualByComparingTo("1.09");
+		assertThat(productIndex.findById(gum.id()).orElseThrow().price()).isEqualByComparingTo("1.09");
+	}
+
+	@Test
+	void changeThatWouldBreakAnyMatchingProductChangesNone() {
+		ProductDTO cheap = create(product("ADJ-003", "Caramelo ADJGUARD", "50.00", 3));
+		ProductDTO dear = create(product("ADJ-004", "Vino ADJGUARD", "5000.00", 30));
+
+		ProductAdjustmentRequestDTO discount = new ProductAdjustmentRequestDTO(null, "ADJGUARD", null,
+				AdjustmentType.PRICE_AMOUNT, new BigDecimal("-100.00"));
+		assertThat(productService.adjust(discount, true, ADMIN).rejected()).isEqualTo(1);
+		assertThat(status(discount)).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+
+		ProductAdjustmentRequestDTO shrink = new ProductAdjustmentRequestDTO(null, "ADJGUARD", null,
+				AdjustmentType.STOCK, new BigDecimal("-5"));
+		assertThat(status(shrink)).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+
+		assertThat(productService.findById(cheap.id()).price()).isEqualByComparingTo("50.00");
+		assertThat(productService.findById(dear.id()).price()).isEqualByComparingTo("5000.00");
+		assertThat(productService.findById(cheap.id()).stockQuantity()).isEqualTo(3);
+		assertThat(productService.findById(dear.id()).stockQuantity()).isEqualTo(30);
+	}
+
+	@Test
+	void invalidRequestsAreRejectedBeforeTouchingAnything() {
+		assertThat(status(new ProductAdjustmentRequestDTO(null, " ", null, AdjustmentType.STOCK, BigDecimal.ONE)))
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(status(new ProductAdjustmentRequestDTO(null, "ADJ", null, AdjustmentType.STOCK,
+				new BigDecimal("1.5")))).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(status(new ProductAdjustmentRequestDTO(null, "ADJ", null, AdjustmentType.PRICE_PERCENT,
+				new BigDecimal("-100")))).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(status(new ProductAdjustmentRequestDTO(null, "ADJ", null, AdjustmentType.PRICE_AMOUNT,
+				new BigDecimal("0.001")))).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void nameFilterTreatsWildcardsLiterally() {
+		create(product("ADJ-005", "Promo 50% ADJLIKE", "10.00", 1));
+		create(product("ADJ-006", "Promo 500 ADJLIKE", "10.00", 1));
+
+		ProductAdjustmentResultDTO preview = productService.adjust(new ProductAdjustmentRequestDTO(null, "50% ADJLIKE",
+				null, AdjustmentType.STOCK, BigDecimal.ONE), true, ADMIN);
+
+		assertThat(preview.matched()).isEqualTo(1);
+	}
+
+	private ProductDTO create(ProductDTO product) {
+		ProductDTO saved = productService.create(product);
+		created.add(saved.id());
+		return saved;
+	}
+
+	private HttpStatus status(ProductAdjustmentRequestDTO request) {
+		ResponseStatusException error = catchThrowableOfType(ResponseStatusException.class,
+				() -> productService.adjust(request, false, ADMIN));
+		return error == null ? null : HttpStatus.valueOf(error.getStatusCode().value());
+	}
+
+	private static ProductDTO product(String barcode, String name, String price, int stock) {
+		return new ProductDTO(null, barcode, name, new BigDecimal(price), stock, null, null, true, null, null);
+	}
+}
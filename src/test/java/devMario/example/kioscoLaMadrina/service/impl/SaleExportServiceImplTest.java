@@ -0,0 +1,106 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.ExportFormat;
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleExportService;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleExportServiceImplTest {
+	@Autowired
+	private SaleExportService saleExportService;
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+
+	@Value("${kiosco.app.exportTimeoutMs}")
+	private long exportTimeoutMs;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	// Built on the shared test context; @AutoConfigureMockMvc would start a second context on the same H2 database
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void csvCellsThatLookLikeFormulasAreExportedAsText() throws Exception {
+		userRepository.save(User.builder().username("@export-cashier").password("unused").role(Role.EMPLOYEE).build());
+		Product product = productRepository.save(Product.builder()
+				.barcode("+EXPORT-001")
+				.name("=HYPERLINK(\"http://example.com\")")
+				.price(new BigDecimal("150.00"))
+				.stockQuantity(10)
+				.build());
+		LocalDateTime from = LocalDateTime.now().minusSeconds(1);
+		saleService.createSale(new SaleRequestDTO(List.of(new SaleItemRequestDTO(product.getId(), 2))),
+				"@export-cashier");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		saleExportService.exportSaleDetails(ExportFormat.CSV, from, null, out);
+
+		String row = out.toString(StandardCharsets.UTF_8).lines()
+				.filter(line -> line.contains("EXPORT-001"))
+				.findFirst().orElseThrow();
+		assertThat(row)
+				.contains(",'@export-cashier,")
+				.contains(",'+EXPORT-001,")
+				.contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",")
+				.endsWith(",2,150.00,300.00");
+	}
+
+	@Test
+	void exportRunsWithItsOwnAsyncTimeout() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/sales/export")
+						.param("format", "csv")
+						.param("from", "2999-01-01T00:00:00")
+						.with(user("export-admin").authorities(new SimpleGrantedAuthority("ADMIN"))))
+				.andReturn();
+
+		assertThat(result.getRequest().isAsyncStarted()).isTrue();
+		assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(exportTimeoutMs);
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,123 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devMario.example.kioscoLaMadrina.event.SaleCompletedEvent;
+import devMario.example.kioscoLaMadrina.model.OutboxEvent;
+import devMario.example.kioscoLaMadrina.repository.OutboxEventRepository;
+import devMario.example.kioscoLaMadrina.service.SaleCompletedConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SaleOutboxTest {
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SaleOutbox outbox = new SaleOutbox();
+
+	// Sales the consumer received, per call; sales listed in failing make the whole call fail
+	private final List<List<Long>> calls = new ArrayList<>();
+	private final Set<Long> failing = new HashSet<>();
+
+	@BeforeEach
+	void setUp() {
+		SaleCompletedConsumer consumer = sales -> {
+			List<Long> ids = sales.stream().map(SaleCompletedEvent::saleId).toList();
+			calls.add(ids);
+			if (ids.stream().anyMatch(failing::contains)) {
+				throw new IllegalStateException("consumer failed on " + ids);
+			}
+		};
+		ReflectionTestUtils.setField(outbox, "outboxRepository", outboxRepository);
+		ReflectionTestUtils.setField(outbox, "consumers", List.of(consumer));
+		ReflectionTestUtils.setField(outbox, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(outbox, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(outbox, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(outbox, "batchSize", 10);
+		ReflectionTestUtils.setField(outbox, "maxAttempts", MAX_ATTEMPTS);
+		ReflectionTestUtils.invokeMethod(outbox, "init");
+	}
+
+	@Test
+	void deliversPendingEventsInOneBatchAndDeletesThem() throws Exception {
+		pending(event(1L, 101L, 0), event(2L, 102L, 0));
+
+		assertThat(dispatch()).isEqualTo(2);
+
+		assertThat(calls).containsExactly(List.of(101L, 102L));
+		verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+		assertThat(meterRegistry.counter("kiosco.outbox.delivered").count()).isEqualTo(2);
+	}
+
+	@Test
+	void failedBatchIsRetriedOneEventAtATimeAndStopsAtTheFailingOne() throws Exception {
+		failing.add(102L);
+		pending(event(1L, 101L, 0), event(2L, 102L, 0), event(3L, 103L, 0));
+
+		assertThat(dispatch()).isEqualTo(-1);
+
+		// The event behind the failing one waits, so sales are still delivered in order
+		assertThat(calls).containsExactly(List.of(101L, 102L, 103L), List.of(101L), List.of(102L));
+		verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+		verify(outboxRepository).recordFailure(eq(2L), anyString());
+		verify(outboxRepository, never()).deleteAllByIdInBatch(List.of(3L));
+		assertThat(meterRegistry.counter("kiosco.outbox.set_aside").count()).isZero();
+	}
+
+	@Test
+	void eventIsSetAsideOnItsLastAttempt() throws Exception {
+		failing.add(101L);
+		pending(event(1L, 101L, MAX_ATTEMPTS - 1));
+
+		assertThat(dispatch()).isEqualTo(-1);
+
+		verify(outboxRepository).recordFailure(eq(1L), anyString());
+		verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+		assertThat(meterRegistry.counter("kiosco.outbox.set_aside").count()).isEqualTo(1);
+		// Only events below the attempt limit are ever fetched again
+		verify(outboxRepository).findPending(eq(MAX_ATTEMPTS), any());
+	}
+
+	private int dispatch() {
+		return ReflectionTestUtils.invokeMethod(outbox, "dispatch");
+	}
+
+	private void pending(OutboxEvent... events) {
+		when(outboxRepository.findPending(anyInt(), any())).thenReturn(List.of(events));
+	}
+
+	private OutboxEvent event(Long id, Long saleId, int attempts) throws Exception {
+		SaleCompletedEvent sale = new SaleCompletedEvent(saleId, "cajero", LocalDateTime.now(), BigDecimal.TEN,
+				List.of(new SaleCompletedEvent.Line(1L, null, 1, BigDecimal.TEN, BigDecimal.TEN)), 1L, null);
+		return OutboxEvent.builder()
+				.id(id)
+				.type("SaleCompleted")
+				.payload(objectMapper.writeValueAsString(sale))
+				.createdAt(LocalDateTime.now())
+				.attempts(attempts)
+				.build();
+	}
+}
@@ -0,0 +1,132 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.OfflineSaleDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchItemResultDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchItemResultDTO.Status;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleBatchResultDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.SaleRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.ProductService;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleServiceImplBatchTest {
+
+	private static final String CASHIER = "batch-cashier";
+	private static final LocalDateTime SOLD_AT = LocalDateTime.of(2024, 3, 9, 18, 45);
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private SaleRepository saleRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<String> clientIds = new ArrayList<>();
+	private final List<Long> productIds = new ArrayList<>();
+	private final List<User> cashiers = new ArrayList<>();
+
+	@AfterEach
+	void removeRows() {
+		// The context and its database are shared with the rest of the suite
+		saleRepository.deleteAll(saleRepository.findByClientReferenceIn(clientIds));
+		productIds.forEach(productService::delete);
+		userRepository.deleteAll(cashiers);
+	}
+
+	@Test
+	void batchRecordsValidTicketsAndRejectsTheRestOneByOne() {
+		cashiers.add(userRepository.save(User.builder().username(CASHIER).password("unused").role(Role.EMPLOYEE).build()));
+		Product product = save(Product.builder()
+				.barcode("BATCH-001")
+				.name("Turrón")
+				.price(new BigDecimal("300.00"))
+				.stockQuantity(5)
+				.build());
+
+		SaleBatchRequestDTO batch = new SaleBatchRequestDTO(List.of(
+				ticket("POS1-0001", product.getId(), 2),
+				ticket("POS1-0001", product.getId(), 1),
+				ticket("POS1-0002", product.getId(), 10),
+				ticket("POS1-0003", product.getId(), 3)));
+
+		SaleBatchResultDTO result = saleService.importOfflineSales(batch, CASHIER);
+
+		assertThat(result.results()).extracting(SaleBatchItemResultDTO::clientId, SaleBatchItemResultDTO::status)
+				.containsExactly(
+						tuple("POS1-0001", Status.CREATED),
+						tuple("POS1-0001", Status.REJECTED),
+						tuple("POS1-0002", Status.REJECTED),
+						tuple("POS1-0003", Status.CREATED));
+		assertThat(result.created()).isEqualTo(2);
+		assertThat(result.rejected()).isEqualTo(2);
+		assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isZero();
+		// Offline tickets keep the time they were sold, not the time they were uploaded
+		assertThat(saleRepository.findById(result.results().get(0).saleId()).orElseThrow().getDateTime())
+				.isEqualTo(SOLD_AT);
+	}
+
+	@Test
+	void uploadingTheSameTicketsAgainReportsThemAsDuplicates() {
+		cashiers.add(userRepository.save(User.builder().username(CASHIER + "-retry").password("unused")
+				.role(Role.EMPLOYEE).build()));
+		Product product = save(Product.builder()
+				.barcode("BATCH-002")
+				.name("Maní")
+				.price(new BigDecimal("120.00"))
+				.stockQuantity(10)
+				.build());
+		SaleBatchRequestDTO batch = new SaleBatchRequestDTO(List.of(
+				ticket("POS2-0001", product.getId(), 1),
+				ticket("POS2-0002", product.getId(), 2)));
+
+		SaleBatchResultDTO first = saleService.importOfflineSales(batch, CASHIER + "-retry");
+		// The terminal lost the response and uploads the same batch again
+		SaleBatchResultDTO retry = saleService.importOfflineSales(batch, CASHIER + "-retry");
+
+		assertThat(retry.created()).isZero();
+		assertThat(retry.duplicates()).isEqualTo(2);
+		assertThat(retry.results()).extracting(SaleBatchItemResultDTO::saleId)
+				.containsExactlyElementsOf(first.results().stream().map(SaleBatchItemResultDTO::saleId).toList());
+		assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(7);
+	}
+
+	private Product save(Product product) {
+		Product saved = productRepository.save(product);
+		productIds.add(saved.getId());
+		return saved;
+	}
+
+	private OfflineSaleDTO ticket(String clientId, Long productId, int quantity) {
+		clientIds.add(clientId);
+		return new OfflineSaleDTO(clientId, SOLD_AT, List.of(new SaleItemRequestDTO(productId, quantity)));
+	}
+}
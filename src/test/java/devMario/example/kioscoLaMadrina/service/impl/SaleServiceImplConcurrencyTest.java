@@ -0,0 +1,114 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.exception.InsufficientStockException;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleServiceImplConcurrencyTest {
+
+	private static final int CASHIERS = 8;
+	private static final int SALES_PER_CASHIER = 10;
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void concurrentCheckoutsNeverOversell() throws Exception {
+		userRepository.save(User.builder()
+				.username("stress-cashier")
+				.password("unused")
+				.role(Role.EMPLOYEE)
+				.build());
+		Product first = productRepository.save(product("STRESS-001", "Alfajor", 40));
+		Product second = productRepository.save(product("STRESS-002", "Gaseosa", 25));
+
+		AtomicInteger soldFirst = new AtomicInteger();
+		AtomicInteger soldSecond = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(CASHIERS);
+		List<Future<?>> cashiers = new ArrayList<>();
+
+		for (int c = 0; c < CASHIERS; c++) {
+			cashiers.add(pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int s = 0; s < SALES_PER_CASHIER; s++) {
+					int qtyFirst = random.nextInt(1, 4);
+					int qtySecond = random.nextInt(1, 4);
+					// Alternate line order (and split a line in two) to exercise lock ordering and line merging.
+					List<SaleItemRequestDTO> items = random.nextBoolean()
+							? List.of(new SaleItemRequestDTO(first.getId(), qtyFirst),
+									new SaleItemRequestDTO(second.getId(), qtySecond))
+							: List.of(new SaleItemRequestDTO(second.getId(), qtySecond),
+									new SaleItemRequestDTO(first.getId(), 1),
+									new SaleItemRequestDTO(first.getId(), qtyFirst));
+					int firstTotal = items.stream().filter(i -> i.productId().equals(first.getId()))
+							.mapToInt(SaleItemRequestDTO::quantity).sum();
+					try {
+						saleService.createSale(new SaleRequestDTO(items), "stress-cashier");
+						soldFirst.addAndGet(firstTotal);
+						soldSecond.addAndGet(qtySecond);
+					} catch (InsufficientStockException e) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> cashier : cashiers) {
+			cashier.get();
+		}
+		pool.shutdown();
+
+		int stockFirst = productRepository.findById(first.getId()).orElseThrow().getStockQuantity();
+		int stockSecond = productRepository.findById(second.getId()).orElseThrow().getStockQuantity();
+
+		assertThat(stockFirst).isGreaterThanOrEqualTo(0);
+		assertThat(stockSecond).isGreaterThanOrEqualTo(0);
+		assertThat(stockFirst).isEqualTo(40 - soldFirst.get());
+		assertThat(stockSecond).isEqualTo(25 - soldSecond.get());
+		assertThat(rejected.get()).isPositive();
+	}
+
+	private static Product product(String barcode, String name, int stock) {
+		return Product.builder()
+				.barcode(barcode)
+				.name(name)
+				.price(new BigDecimal("500.00"))
+				.stockQuantity(stock)
+				.build();
+	}
+}
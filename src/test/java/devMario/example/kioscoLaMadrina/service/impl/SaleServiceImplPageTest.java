@@ -0,0 +1,106 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SalePageDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleResponseDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleSearchCriteria;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.Sale;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.SaleRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleServiceImplPageTest {
+
+	private static final String CASHIER = "page-cashier";
+	private static final LocalDateTime NOON = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private SaleRepository saleRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<Sale> saved = new ArrayList<>();
+	private User cashier;
+
+	@AfterEach
+	void removeRows() {
+		// The context and its database are shared with the rest of the suite
+		saleRepository.deleteAll(saved);
+		if (cashier != null) {
+			userRepository.delete(cashier);
+		}
+	}
+
+	@Test
+	void cursorWalksEverySaleOnceNewestFirstAcrossTiedTimestamps() {
+		cashier = userRepository.save(User.builder().username(CASHIER).password("unused").role(Role.EMPLOYEE).build());
+		// Three sales share each timestamp, so the page boundaries fall inside a tie
+		for (int i = 0; i < 7; i++) {
+			saved.add(saleRepository.save(Sale.builder()
+					.dateTime(NOON.plusMinutes(i / 3))
+					.totalAmount(new BigDecimal("80.00"))
+					.user(cashier)
+					.build()));
+		}
+
+		SaleSearchCriteria criteria = new SaleSearchCriteria(null, null, CASHIER, null, null);
+		List<SaleResponseDTO> walked = new ArrayList<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String cursor = null;
+		do {
+			SalePageDTO page = saleService.findPage(criteria, cursor, 3);
+			walked.addAll(page.items());
+			pageSizes.add(page.items().size());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		assertThat(pageSizes).containsExactly(3, 3, 1);
+		assertThat(walked).extracting(SaleResponseDTO::id)
+				.containsExactlyInAnyOrderElementsOf(saved.stream().map(Sale::getId).toList());
+		assertThat(walked).isSortedAccordingTo(Comparator.comparing(SaleResponseDTO::dateTime)
+				.thenComparing(SaleResponseDTO::id).reversed());
+	}
+
+	@Test
+	void unknownCashierAndEmptyRangeFindNothing() {
+		SalePageDTO unknown = saleService.findPage(new SaleSearchCriteria(null, null, "nobody-page", null, null),
+				null, 10);
+		assertThat(unknown.items()).isEmpty();
+		assertThat(unknown.nextCursor()).isNull();
+
+		SalePageDTO future = saleService.findPage(new SaleSearchCriteria(LocalDateTime.of(2999, 1, 1, 0, 0), null,
+				null, null, null), null, 10);
+		assertThat(future.items()).isEmpty();
+	}
+
+	@Test
+	void tamperedCursorIsRejected() {
+		ResponseStatusException error = catchThrowableOfType(ResponseStatusException.class,
+				() -> saleService.findPage(new SaleSearchCriteria(null, null, null, null, null), "not-a-cursor", 10));
+
+		assertThat(error.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+}
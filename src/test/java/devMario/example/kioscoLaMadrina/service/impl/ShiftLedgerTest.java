@@ -0,0 +1,89 @@
+package devMario.example.kioscoLaMadrina.service.impl;
+
+import devMario.example.kioscoLaMadrina.dto.SaleItemRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.SaleRequestDTO;
+import devMario.example.kioscoLaMadrina.dto.ShiftReportDTO;
+import devMario.example.kioscoLaMadrina.model.Product;
+import devMario.example.kioscoLaMadrina.model.Role;
+import devMario.example.kioscoLaMadrina.model.User;
+import devMario.example.kioscoLaMadrina.repository.ProductRepository;
+import devMario.example.kioscoLaMadrina.repository.UserRepository;
+import devMario.example.kioscoLaMadrina.service.SaleService;
+import devMario.example.kioscoLaMadrina.service.ShiftService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShiftLedgerTest {
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ShiftService shiftService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void closingReportIncludesSaleCommittedWhileClosing() throws Exception {
+		userRepository.save(User.builder()
+				.username("shift-race-cashier")
+				.password("unused")
+				.role(Role.EMPLOYEE)
+				.build());
+		Product product = productRepository.save(Product.builder()
+				.barcode("SHIFT-RACE-001")
+				.name("Alfajor")
+				.price(new BigDecimal("500.00"))
+				.stockQuantity(10)
+				.build());
+		shiftService.open("shift-race-cashier");
+
+		CountDownLatch saleInFlight = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		CompletableFuture<Void> sale = CompletableFuture.runAsync(() ->
+				new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+					saleService.createSale(new SaleRequestDTO(List.of(new SaleItemRequestDTO(product.getId(), 2))),
+							"shift-race-cashier");
+					saleInFlight.countDown();
+					try {
+						commit.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}));
+		assertThat(saleInFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<ShiftReportDTO> closing = CompletableFuture.supplyAsync(
+				() -> shiftService.close("shift-race-cashier"));
+		Thread.sleep(100);
+		assertThat(closing).isNotDone();
+		commit.countDown();
+		sale.get(5, TimeUnit.SECONDS);
+
+		ShiftReportDTO report = closing.get(5, TimeUnit.SECONDS);
+		assertThat(report.ticketCount()).isEqualTo(1);
+		assertThat(report.revenue()).isEqualByComparingTo("1000.00");
+		assertThat(report.unitsSold()).isEqualTo(2);
+	}
+}